@@ -0,0 +1,93 @@
+package com.kelox.backend.benchmark;
+
+import com.kelox.backend.util.Gs1ElementString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decoding a batch of scanner strings: the single-pass parser vs a straightforward regex split
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Gs1ParserBenchmark {
+    
+    private static final int BATCH = 1000;
+    private static final Pattern ELEMENT = Pattern.compile("\\((\\d{2,4})\\)([^(]*)");
+    private static final DateTimeFormatter YYMMDD = DateTimeFormatter.ofPattern("yyMMdd");
+    
+    private String[] scannerStrings;
+    private String[] humanReadable;
+    private int currentYear;
+    
+    @Setup
+    public void setUp() {
+        scannerStrings = new String[BATCH];
+        humanReadable = new String[BATCH];
+        currentYear = LocalDate.now().getYear();
+        for (int i = 0; i < BATCH; i++) {
+            String gtin = withCheckDigit(String.format("0950600%06d", i));
+            String expiry = String.format("%02d%02d%02d", 27 + i % 3, 1 + i % 12, 1 + i % 28);
+            String lot = "LOT" + (100000 + i);
+            scannerStrings[i] = "]d201" + gtin + "17" + expiry + "10" + lot + "\u001D21S" + i;
+            humanReadable[i] = "(01)" + gtin + "(17)" + expiry + "(10)" + lot + "(21)S" + i;
+        }
+    }
+    
+    @Benchmark
+    public void parserScannerStrings(Blackhole blackhole) {
+        for (String raw : scannerStrings) {
+            blackhole.consume(Gs1ElementString.parse(raw, currentYear));
+        }
+    }
+    
+    @Benchmark
+    public void parserHumanReadable(Blackhole blackhole) {
+        for (String raw : humanReadable) {
+            blackhole.consume(Gs1ElementString.parse(raw, currentYear));
+        }
+    }
+    
+    @Benchmark
+    public void regexHumanReadable(Blackhole blackhole) {
+        for (String raw : humanReadable) {
+            Map<String, String> elements = new HashMap<>();
+            Matcher matcher = ELEMENT.matcher(raw);
+            while (matcher.find()) {
+                elements.put(matcher.group(1), matcher.group(2));
+            }
+            blackhole.consume(elements.get("01"));
+            blackhole.consume(LocalDate.parse(elements.get("17"), YYMMDD));
+            blackhole.consume(elements.get("10"));
+        }
+    }
+    
+    private static String withCheckDigit(String first13) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += (first13.charAt(i) - '0') * (i % 2 == 0 ? 3 : 1);
+        }
+        return first13 + (10 - sum % 10) % 10;
+    }
+}
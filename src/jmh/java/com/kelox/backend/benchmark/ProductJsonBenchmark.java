@@ -0,0 +1,104 @@
+package com.kelox.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kelox.backend.config.CatalogConfig;
+import com.kelox.backend.dto.ProductPageResponse;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.entity.HospitalProfile;
+import com.kelox.backend.entity.Product;
+import com.kelox.backend.enums.Unit;
+import com.kelox.backend.service.CatalogVersionService;
+import com.kelox.backend.service.ProductJsonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serializing a marketplace page: Jackson on every request vs stitching cached fragments
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonBenchmark {
+    
+    @Param({"50", "200"})
+    private int pageSize;
+    
+    private List<Product> products;
+    private ObjectMapper objectMapper;
+    private ProductJsonCache productJsonCache;
+    
+    @Setup
+    public void setUp() {
+        // Same modules and defaults as the mapper Spring Boot configures
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        
+        productJsonCache = new ProductJsonCache(objectMapper, new CatalogVersionService(new CatalogConfig()),
+            new SimpleMeterRegistry(), 100_000);
+        
+        HospitalProfile seller = new HospitalProfile();
+        seller.setId(1L);
+        seller.setName("St. Mary's General Hospital");
+        
+        products = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("Nitrile examination gloves, powder free, size M " + id);
+            product.setManufacturer("Medline Industries");
+            product.setCode("MDS-" + (10_000 + id));
+            product.setLotNumber("LOT-2026-" + id);
+            product.setExpiryDate(LocalDateTime.of(2027, 3, 1, 0, 0).plusDays(id));
+            product.setDescription("Box of 100 non-sterile ambidextrous gloves with textured fingertips. Latex free.");
+            product.setPrice(12.5f + id);
+            product.setQuantity((int) (id * 3));
+            product.setUnit(Unit.BOX);
+            product.setSeller(seller);
+            products.add(product);
+        }
+        
+        // Warm the fragment cache the way steady-state traffic would
+        stitchedFragments();
+    }
+    
+    @Benchmark
+    public byte[] objectMapperPerRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(page());
+    }
+    
+    @Benchmark
+    public byte[] stitchedFragments() {
+        return productJsonCache.encodePage(page(), productJsonCache.startRead());
+    }
+    
+    private ProductPageResponse page() {
+        List<ProductResponse> items = products.stream()
+            .map(ProductResponse::fromEntity)
+            .collect(Collectors.toList());
+        return new ProductPageResponse(items, "djF8RVhQSVJZX0RBVEV8QVNDfDIwMjctMDQtMTlUMDA6MDB8NTA", true, pageSize);
+    }
+}
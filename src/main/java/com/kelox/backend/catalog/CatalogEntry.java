@@ -0,0 +1,86 @@
+package com.kelox.backend.catalog;
+
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.entity.Product;
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.enums.Unit;
+import com.kelox.backend.util.ProductCursor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Immutable, detached view of a product held by the in-memory catalog
+ */
+@Getter
+@AllArgsConstructor
+public final class CatalogEntry {
+    
+    private static final Comparator<CatalogEntry> BY_ID = Comparator.comparing(CatalogEntry::getId);
+    private static final Comparator<CatalogEntry> BY_EXPIRY_DATE =
+        Comparator.comparing(CatalogEntry::getExpiryDate).thenComparing(CatalogEntry::getId);
+    private static final Comparator<CatalogEntry> BY_PRICE =
+        Comparator.comparing(CatalogEntry::getPrice).thenComparing(CatalogEntry::getId);
+    
+    private final Long id;
+    private final String name;
+    private final String manufacturer;
+    private final String code;
+    private final String lotNumber;
+    private final LocalDateTime expiryDate;
+    private final String description;
+    private final Float price;
+    private final Integer quantity;
+    private final Integer availableQuantity;
+    private final Unit unit;
+    private final Long sellerId;
+    private final String sellerName;
+    
+    public static CatalogEntry fromEntity(Product product) {
+        return new CatalogEntry(
+            product.getId(),
+            product.getName(),
+            product.getManufacturer(),
+            product.getCode(),
+            product.getLotNumber(),
+            product.getExpiryDate(),
+            product.getDescription(),
+            product.getPrice(),
+            product.getQuantity(),
+            product.getAvailableQuantity(),
+            product.getUnit(),
+            product.getSeller().getId(),
+            product.getSeller().getName()
+        );
+    }
+    
+    public ProductResponse toResponse() {
+        return new ProductResponse(id, name, manufacturer, code, lotNumber, expiryDate, description,
+            price, quantity, availableQuantity, unit, sellerId, sellerName);
+    }
+    
+    /**
+     * Ascending (sort key, id) order, identical to the ORDER BY used by the database listing
+     */
+    public static Comparator<CatalogEntry> comparator(ProductSort sort) {
+        return switch (sort) {
+            case EXPIRY_DATE -> BY_EXPIRY_DATE;
+            case PRICE -> BY_PRICE;
+            case ID -> BY_ID;
+        };
+    }
+    
+    /**
+     * Compare this entry's (sort key, id) position with a cursor position
+     */
+    int compareTo(ProductCursor cursor) {
+        int result = switch (cursor.getSort()) {
+            case EXPIRY_DATE -> expiryDate.compareTo(cursor.getExpiryDate());
+            case PRICE -> price.compareTo(cursor.getPrice());
+            case ID -> 0;
+        };
+        return result != 0 ? result : id.compareTo(cursor.getLastId());
+    }
+}
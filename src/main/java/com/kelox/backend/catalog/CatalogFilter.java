@@ -0,0 +1,102 @@
+package com.kelox.backend.catalog;
+
+import com.kelox.backend.dto.ProductFilterRequest;
+import com.kelox.backend.enums.Unit;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Listing filter resolved against a point in time, evaluated against in-memory catalog entries
+ * Empty sets and null bounds mean "no restriction".
+ */
+@Getter
+public final class CatalogFilter implements Predicate<CatalogEntry> {
+    
+    private final Set<String> manufacturers;
+    private final Set<Unit> units;
+    private final Set<Long> sellers;
+    private final Float minPrice;
+    private final Float maxPrice;
+    private final LocalDateTime expiresBefore;
+    
+    private CatalogFilter(Set<String> manufacturers, Set<Unit> units, Set<Long> sellers,
+                          Float minPrice, Float maxPrice, LocalDateTime expiresBefore) {
+        this.manufacturers = manufacturers;
+        this.units = units;
+        this.sellers = sellers;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.expiresBefore = expiresBefore;
+    }
+    
+    /**
+     * Resolve a request filter
+     * sellerScope pins the seller facet (hospital listings) and overrides any requested sellers
+     */
+    public static CatalogFilter of(ProductFilterRequest request, Long sellerScope, LocalDateTime now) {
+        ProductFilterRequest filter = request != null ? request : new ProductFilterRequest();
+        
+        Set<String> manufacturers = filter.getManufacturer() == null ? Set.of() : filter.getManufacturer().stream()
+            .map(CatalogFilter::normalizeManufacturer)
+            .collect(Collectors.toSet());
+        Set<Unit> units = filter.getUnit() == null || filter.getUnit().isEmpty()
+            ? Set.of()
+            : EnumSet.copyOf(filter.getUnit());
+        Set<Long> sellers = sellerScope != null
+            ? Set.of(sellerScope)
+            : Set.copyOf(filter.getSellerHospitalId() == null ? List.of() : filter.getSellerHospitalId());
+        LocalDateTime expiresBefore = filter.getExpiresWithinDays() != null
+            ? now.plusDays(filter.getExpiresWithinDays())
+            : null;
+        
+        return new CatalogFilter(manufacturers, units, sellers, filter.getMinPrice(), filter.getMaxPrice(), expiresBefore);
+    }
+    
+    /**
+     * Manufacturer values are matched case-insensitively, ignoring surrounding whitespace
+     */
+    public static String normalizeManufacturer(String manufacturer) {
+        return manufacturer.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    @Override
+    public boolean test(CatalogEntry entry) {
+        return matchesManufacturer(entry)
+            && matchesUnit(entry)
+            && matchesSeller(entry)
+            && matchesPrice(entry)
+            && matchesExpiry(entry);
+    }
+    
+    public boolean matchesManufacturer(CatalogEntry entry) {
+        return manufacturers.isEmpty() || manufacturers.contains(normalizeManufacturer(entry.getManufacturer()));
+    }
+    
+    public boolean matchesUnit(CatalogEntry entry) {
+        return units.isEmpty() || units.contains(entry.getUnit());
+    }
+    
+    public boolean matchesSeller(CatalogEntry entry) {
+        return sellers.isEmpty() || sellers.contains(entry.getSellerId());
+    }
+    
+    public boolean matchesPrice(CatalogEntry entry) {
+        return (minPrice == null || entry.getPrice() >= minPrice)
+            && (maxPrice == null || entry.getPrice() <= maxPrice);
+    }
+    
+    public boolean matchesExpiry(CatalogEntry entry) {
+        return expiresBefore == null || !entry.getExpiryDate().isAfter(expiresBefore);
+    }
+    
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+}
@@ -0,0 +1,248 @@
+package com.kelox.backend.catalog;
+
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.util.ProductCursor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable point-in-time copy of the marketplace catalog
+ * Holds every product once, plus arrays sorted by each ProductSort (globally and per seller)
+ * so keyset pages are served with a binary search. Never mutated after construction - changes
+ * produce a new snapshot via {@link #patch}.
+ */
+public final class CatalogSnapshot {
+
+    @Getter
+    private final long version;
+
+    @Getter
+    private final Instant builtAt;
+
+    private final Map<Long, CatalogEntry> entries;
+    private final Map<Long, String> hospitalNames;
+    private final Map<ProductSort, CatalogEntry[]> sorted;
+    private final Map<Long, Map<ProductSort, CatalogEntry[]>> sortedBySeller;
+
+    private CatalogSnapshot(long version,
+                            Map<Long, CatalogEntry> entries,
+                            Map<Long, String> hospitalNames,
+                            Map<ProductSort, CatalogEntry[]> sorted,
+                            Map<Long, Map<ProductSort, CatalogEntry[]>> sortedBySeller) {
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.entries = entries;
+        this.hospitalNames = hospitalNames;
+        this.sorted = sorted;
+        this.sortedBySeller = sortedBySeller;
+    }
+
+    /**
+     * Build a snapshot from scratch
+     */
+    public static CatalogSnapshot build(long version, Collection<CatalogEntry> products, Map<Long, String> hospitalNames) {
+        Map<Long, CatalogEntry> entries = new HashMap<>(products.size() * 2);
+        Map<Long, List<CatalogEntry>> bySeller = new HashMap<>();
+        for (CatalogEntry entry : products) {
+            entries.put(entry.getId(), entry);
+            bySeller.computeIfAbsent(entry.getSellerId(), id -> new ArrayList<>()).add(entry);
+        }
+
+        Map<Long, Map<ProductSort, CatalogEntry[]>> sortedBySeller = new HashMap<>(bySeller.size() * 2);
+        bySeller.forEach((sellerId, sellerEntries) -> sortedBySeller.put(sellerId, sortAll(sellerEntries)));
+
+        return new CatalogSnapshot(
+            version,
+            Collections.unmodifiableMap(entries),
+            Collections.unmodifiableMap(new HashMap<>(hospitalNames)),
+            sortAll(entries.values()),
+            Collections.unmodifiableMap(sortedBySeller)
+        );
+    }
+
+    /**
+     * Produce a new snapshot with the given entries inserted or replaced and the given ids removed
+     * Sorted views are rebuilt by merging, so the cost is linear in catalog size rather than a full sort
+     */
+    public CatalogSnapshot patch(long newVersion, Collection<CatalogEntry> upserts, Set<Long> removedIds) {
+        Set<Long> touchedIds = new HashSet<>(removedIds);
+        Set<Long> touchedSellers = new HashSet<>();
+        Map<Long, CatalogEntry> newEntries = new HashMap<>(entries);
+        Map<Long, String> newHospitalNames = new HashMap<>(hospitalNames);
+
+        for (Long id : removedIds) {
+            CatalogEntry removed = newEntries.remove(id);
+            if (removed != null) {
+                touchedSellers.add(removed.getSellerId());
+            }
+        }
+        for (CatalogEntry entry : upserts) {
+            touchedIds.add(entry.getId());
+            touchedSellers.add(entry.getSellerId());
+            newEntries.put(entry.getId(), entry);
+            newHospitalNames.put(entry.getSellerId(), entry.getSellerName());
+        }
+
+        Map<Long, Map<ProductSort, CatalogEntry[]>> newBySeller = new HashMap<>(sortedBySeller);
+        for (Long sellerId : touchedSellers) {
+            List<CatalogEntry> sellerUpserts = upserts.stream()
+                .filter(entry -> entry.getSellerId().equals(sellerId))
+                .toList();
+            Map<ProductSort, CatalogEntry[]> views = mergeAll(
+                sortedBySeller.getOrDefault(sellerId, Map.of()), touchedIds, sellerUpserts);
+            if (views.get(ProductSort.ID).length == 0) {
+                newBySeller.remove(sellerId);
+            } else {
+                newBySeller.put(sellerId, views);
+            }
+        }
+
+        return new CatalogSnapshot(
+            newVersion,
+            Collections.unmodifiableMap(newEntries),
+            Collections.unmodifiableMap(newHospitalNames),
+            mergeAll(sorted, touchedIds, upserts),
+            Collections.unmodifiableMap(newBySeller)
+        );
+    }
+
+    public Optional<CatalogEntry> get(Long productId) {
+        return Optional.ofNullable(entries.get(productId));
+    }
+
+    public boolean hasHospital(Long hospitalId) {
+        return hospitalNames.containsKey(hospitalId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Collection<CatalogEntry> entries() {
+        return entries.values();
+    }
+
+    /**
+     * Return up to limit entries strictly after the cursor in the requested order
+     * sellerId is optional - when set only that seller's entries are considered
+     */
+    public List<CatalogEntry> page(Long sellerId, ProductSort sort, Sort.Direction direction,
+                                   ProductCursor cursor, int limit) {
+        return page(sellerId, sort, direction, cursor, limit, entry -> true);
+    }
+
+    /**
+     * Same as {@link #page(Long, ProductSort, Sort.Direction, ProductCursor, int)}, skipping entries that fail the filter
+     */
+    public List<CatalogEntry> page(Long sellerId, ProductSort sort, Sort.Direction direction,
+                                   ProductCursor cursor, int limit, Predicate<CatalogEntry> filter) {
+        CatalogEntry[] view;
+        if (sellerId != null) {
+            Map<ProductSort, CatalogEntry[]> sellerViews = sortedBySeller.get(sellerId);
+            if (sellerViews == null) {
+                return List.of();
+            }
+            view = sellerViews.get(sort);
+        } else {
+            view = sorted.get(sort);
+        }
+
+        List<CatalogEntry> result = new ArrayList<>(Math.min(limit, view.length));
+        if (direction == Sort.Direction.ASC) {
+            for (int i = cursor == null ? 0 : firstAfter(view, cursor); i < view.length && result.size() < limit; i++) {
+                if (filter.test(view[i])) {
+                    result.add(view[i]);
+                }
+            }
+        } else {
+            for (int i = cursor == null ? view.length - 1 : firstAfter(view, cursor) - 1; i >= 0 && result.size() < limit; i--) {
+                // In descending order the cursor row itself must be skipped as well
+                if (cursor != null && view[i].compareTo(cursor) >= 0) {
+                    continue;
+                }
+                if (filter.test(view[i])) {
+                    result.add(view[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Index of the first entry positioned strictly after the cursor in ascending order
+     */
+    private static int firstAfter(CatalogEntry[] view, ProductCursor cursor) {
+        int low = 0;
+        int high = view.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (view[mid].compareTo(cursor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Map<ProductSort, CatalogEntry[]> sortAll(Collection<CatalogEntry> entries) {
+        Map<ProductSort, CatalogEntry[]> views = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            CatalogEntry[] view = entries.toArray(new CatalogEntry[0]);
+            Arrays.sort(view, CatalogEntry.comparator(sort));
+            views.put(sort, view);
+        }
+        return Collections.unmodifiableMap(views);
+    }
+
+    private static Map<ProductSort, CatalogEntry[]> mergeAll(Map<ProductSort, CatalogEntry[]> views,
+                                                             Set<Long> touchedIds,
+                                                             Collection<CatalogEntry> upserts) {
+        Map<ProductSort, CatalogEntry[]> merged = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            Comparator<CatalogEntry> comparator = CatalogEntry.comparator(sort);
+            CatalogEntry[] additions = upserts.toArray(new CatalogEntry[0]);
+            Arrays.sort(additions, comparator);
+            merged.put(sort, merge(views.getOrDefault(sort, new CatalogEntry[0]), touchedIds, additions, comparator));
+        }
+        return Collections.unmodifiableMap(merged);
+    }
+
+    /**
+     * Merge a sorted view, minus every touched id, with the sorted replacement entries
+     */
+    private static CatalogEntry[] merge(CatalogEntry[] view, Set<Long> touchedIds,
+                                        CatalogEntry[] additions, Comparator<CatalogEntry> comparator) {
+        CatalogEntry[] result = new CatalogEntry[view.length + additions.length];
+        int size = 0;
+        int a = 0;
+        for (CatalogEntry existing : view) {
+            if (touchedIds.contains(existing.getId())) {
+                continue;
+            }
+            while (a < additions.length && comparator.compare(additions[a], existing) < 0) {
+                result[size++] = additions[a++];
+            }
+            result[size++] = existing;
+        }
+        while (a < additions.length) {
+            result[size++] = additions[a++];
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+}
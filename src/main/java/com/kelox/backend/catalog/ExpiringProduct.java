@@ -0,0 +1,20 @@
+package com.kelox.backend.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A listed product and the moment it expires
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public final class ExpiringProduct {
+    
+    private final Long productId;
+    private final Long sellerId;
+    private final LocalDateTime expiryDate;
+}
@@ -0,0 +1,97 @@
+package com.kelox.backend.catalog;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Listed products bucketed by the minute they expire
+ * The scheduler only ever looks at the head of the map, so a tick costs O(log buckets + due products)
+ * no matter how many products are indexed. Thread-safe.
+ */
+public final class ExpiryIndex {
+    
+    private final NavigableMap<LocalDateTime, Map<Long, ExpiringProduct>> buckets = new TreeMap<>();
+    private final Map<Long, LocalDateTime> bucketByProduct = new HashMap<>();
+    
+    /**
+     * Replace the whole index
+     */
+    public synchronized void replaceAll(Collection<ExpiringProduct> products) {
+        buckets.clear();
+        bucketByProduct.clear();
+        products.forEach(this::add);
+    }
+    
+    /**
+     * Track a product, moving it if it was already tracked under another expiry
+     */
+    public synchronized void schedule(ExpiringProduct product) {
+        remove(product.getProductId());
+        add(product);
+    }
+    
+    /**
+     * Stop tracking a product
+     */
+    public synchronized void cancel(Long productId) {
+        remove(productId);
+    }
+    
+    /**
+     * Remove and return every product expiring at or before now
+     */
+    public synchronized List<ExpiringProduct> pollDue(LocalDateTime now) {
+        List<ExpiringProduct> due = new ArrayList<>();
+        while (!buckets.isEmpty() && !buckets.firstKey().isAfter(bucketOf(now))) {
+            Map<Long, ExpiringProduct> bucket = buckets.firstEntry().getValue();
+            bucket.values().removeIf(product -> {
+                if (product.getExpiryDate().isAfter(now)) {
+                    return false;
+                }
+                due.add(product);
+                bucketByProduct.remove(product.getProductId());
+                return true;
+            });
+            if (!bucket.isEmpty()) {
+                // Rest of the current minute is not due yet
+                break;
+            }
+            buckets.pollFirstEntry();
+        }
+        return due;
+    }
+    
+    public synchronized int size() {
+        return bucketByProduct.size();
+    }
+    
+    private void add(ExpiringProduct product) {
+        LocalDateTime bucket = bucketOf(product.getExpiryDate());
+        buckets.computeIfAbsent(bucket, key -> new LinkedHashMap<>()).put(product.getProductId(), product);
+        bucketByProduct.put(product.getProductId(), bucket);
+    }
+    
+    private void remove(Long productId) {
+        LocalDateTime bucket = bucketByProduct.remove(productId);
+        if (bucket == null) {
+            return;
+        }
+        Map<Long, ExpiringProduct> products = buckets.get(bucket);
+        products.remove(productId);
+        if (products.isEmpty()) {
+            buckets.remove(bucket);
+        }
+    }
+    
+    private static LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.MINUTES);
+    }
+}
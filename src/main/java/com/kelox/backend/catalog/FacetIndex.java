@@ -0,0 +1,321 @@
+package com.kelox.backend.catalog;
+
+import com.kelox.backend.dto.FacetValueDto;
+import com.kelox.backend.dto.ProductFacetsResponse;
+import com.kelox.backend.enums.Unit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over the catalog for facet counts
+ * Every product gets a dense document number; manufacturer, unit and seller values map to bitsets of
+ * documents, so a filter selection is a handful of bitset ORs/ANDs instead of a scan. Price and expiry
+ * are ranges and are evaluated per document. Updated in place under a write lock.
+ */
+public final class FacetIndex {
+    
+    /** Upper bounds (exclusive) of the price buckets; the last bucket is open-ended */
+    static final float[] PRICE_BOUNDARIES = {10f, 50f, 100f, 500f};
+    
+    /** Expiry windows in days; windows are cumulative, e.g. 90 includes everything within 30 */
+    static final int[] EXPIRY_WINDOW_DAYS = {30, 90, 180, 365};
+    
+    static final int MAX_VALUES_PER_FACET = 50;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+    private CatalogEntry[] docs = new CatalogEntry[1024];
+    private int docCount;
+    private final BitSet live = new BitSet();
+    
+    private final Map<String, BitSet> byManufacturer = new HashMap<>();
+    private final Map<String, String> manufacturerLabels = new HashMap<>();
+    private final Map<Unit, BitSet> byUnit = new EnumMap<>(Unit.class);
+    private final Map<Long, BitSet> bySeller = new HashMap<>();
+    private final Map<Long, String> sellerNames = new HashMap<>();
+    
+    /**
+     * Drop everything and index the given entries
+     */
+    public void replaceAll(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            docByProductId.clear();
+            freeDocs.clear();
+            docs = new CatalogEntry[Math.max(1024, entries.size() + entries.size() / 4)];
+            docCount = 0;
+            live.clear();
+            byManufacturer.clear();
+            manufacturerLabels.clear();
+            byUnit.clear();
+            bySeller.clear();
+            sellerNames.clear();
+            entries.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Insert or replace the given entries and remove the given product ids
+     */
+    public void apply(Collection<CatalogEntry> upserts, Collection<Long> removedIds) {
+        lock.writeLock().lock();
+        try {
+            removedIds.forEach(this::remove);
+            for (CatalogEntry entry : upserts) {
+                remove(entry.getId());
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Count every facet value for the filter selection
+     * Each facet is counted against the documents matching all other filters (disjunctive faceting)
+     */
+    public ProductFacetsResponse facets(CatalogFilter filter, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            BitSet manufacturers = union(byManufacturer, filter.getManufacturers());
+            BitSet units = union(byUnit, filter.getUnits());
+            BitSet sellers = union(bySeller, filter.getSellers());
+            BitSet prices = filter.hasPriceRange() ? scan(filter::matchesPrice) : null;
+            BitSet expiries = filter.getExpiresBefore() != null ? scan(filter::matchesExpiry) : null;
+            
+            BitSet all = intersect(manufacturers, units, sellers, prices, expiries);
+            
+            return new ProductFacetsResponse(
+                (long) all.cardinality(),
+                manufacturerCounts(intersect(units, sellers, prices, expiries)),
+                unitCounts(intersect(manufacturers, sellers, prices, expiries)),
+                sellerCounts(intersect(manufacturers, units, prices, expiries)),
+                priceCounts(intersect(manufacturers, units, sellers, expiries)),
+                expiryCounts(intersect(manufacturers, units, sellers, prices), now)
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void add(CatalogEntry entry) {
+        int doc = freeDocs.isEmpty() ? docCount++ : freeDocs.pop();
+        if (doc >= docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[doc] = entry;
+        docByProductId.put(entry.getId(), doc);
+        live.set(doc);
+        
+        String manufacturer = CatalogFilter.normalizeManufacturer(entry.getManufacturer());
+        byManufacturer.computeIfAbsent(manufacturer, key -> new BitSet()).set(doc);
+        manufacturerLabels.putIfAbsent(manufacturer, entry.getManufacturer().trim());
+        byUnit.computeIfAbsent(entry.getUnit(), key -> new BitSet()).set(doc);
+        bySeller.computeIfAbsent(entry.getSellerId(), key -> new BitSet()).set(doc);
+        sellerNames.put(entry.getSellerId(), entry.getSellerName());
+    }
+    
+    private void remove(Long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        CatalogEntry entry = docs[doc];
+        docs[doc] = null;
+        live.clear(doc);
+        freeDocs.push(doc);
+        
+        String manufacturer = CatalogFilter.normalizeManufacturer(entry.getManufacturer());
+        if (clear(byManufacturer, manufacturer, doc)) {
+            manufacturerLabels.remove(manufacturer);
+        }
+        clear(byUnit, entry.getUnit(), doc);
+        if (clear(bySeller, entry.getSellerId(), doc)) {
+            sellerNames.remove(entry.getSellerId());
+        }
+    }
+    
+    /**
+     * Clear a document from a posting list, dropping the list once empty; returns true if it was dropped
+     */
+    private static <K> boolean clear(Map<K, BitSet> postings, K key, int doc) {
+        BitSet docs = postings.get(key);
+        if (docs == null) {
+            return false;
+        }
+        docs.clear(doc);
+        if (docs.isEmpty()) {
+            postings.remove(key);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Documents having any of the selected values, or null when nothing is selected
+     */
+    private static <K> BitSet union(Map<K, BitSet> postings, Collection<K> selected) {
+        if (selected.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (K key : selected) {
+            BitSet docs = postings.get(key);
+            if (docs != null) {
+                result.or(docs);
+            }
+        }
+        return result;
+    }
+    
+    private BitSet scan(Predicate<CatalogEntry> predicate) {
+        BitSet result = new BitSet();
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            if (predicate.test(docs[doc])) {
+                result.set(doc);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Live documents that are in every non-null set
+     */
+    private BitSet intersect(BitSet... sets) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet set : sets) {
+            if (set != null) {
+                result.and(set);
+            }
+        }
+        return result;
+    }
+    
+    private List<FacetValueDto> manufacturerCounts(BitSet base) {
+        List<FacetValueDto> values = new ArrayList<>();
+        byManufacturer.forEach((key, docs) -> {
+            long count = countIn(docs, base);
+            if (count > 0) {
+                values.add(new FacetValueDto(manufacturerLabels.get(key), manufacturerLabels.get(key), count));
+            }
+        });
+        return topValues(values);
+    }
+    
+    private List<FacetValueDto> unitCounts(BitSet base) {
+        List<FacetValueDto> values = new ArrayList<>();
+        for (Unit unit : Unit.values()) {
+            BitSet docs = byUnit.get(unit);
+            long count = docs == null ? 0 : countIn(docs, base);
+            values.add(new FacetValueDto(unit.name(), unit.name(), count));
+        }
+        return values;
+    }
+    
+    private List<FacetValueDto> sellerCounts(BitSet base) {
+        List<FacetValueDto> values = new ArrayList<>();
+        bySeller.forEach((sellerId, docs) -> {
+            long count = countIn(docs, base);
+            if (count > 0) {
+                values.add(new FacetValueDto(sellerId.toString(), sellerNames.get(sellerId), count));
+            }
+        });
+        return topValues(values);
+    }
+    
+    private List<FacetValueDto> priceCounts(BitSet base) {
+        long[] counts = new long[PRICE_BOUNDARIES.length + 1];
+        for (int doc = base.nextSetBit(0); doc >= 0; doc = base.nextSetBit(doc + 1)) {
+            counts[priceBucket(docs[doc].getPrice())]++;
+        }
+        
+        List<FacetValueDto> values = new ArrayList<>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            String low = bucket == 0 ? "0" : formatPrice(PRICE_BOUNDARIES[bucket - 1]);
+            if (bucket < PRICE_BOUNDARIES.length) {
+                String high = formatPrice(PRICE_BOUNDARIES[bucket]);
+                values.add(new FacetValueDto(low + "-" + high, low + " - " + high, counts[bucket]));
+            } else {
+                values.add(new FacetValueDto(low + "-", low + "+", counts[bucket]));
+            }
+        }
+        return values;
+    }
+    
+    private List<FacetValueDto> expiryCounts(BitSet base, LocalDateTime now) {
+        long[] counts = new long[EXPIRY_WINDOW_DAYS.length];
+        LocalDateTime[] limits = new LocalDateTime[EXPIRY_WINDOW_DAYS.length];
+        for (int i = 0; i < limits.length; i++) {
+            limits[i] = now.plusDays(EXPIRY_WINDOW_DAYS[i]);
+        }
+        for (int doc = base.nextSetBit(0); doc >= 0; doc = base.nextSetBit(doc + 1)) {
+            LocalDateTime expiryDate = docs[doc].getExpiryDate();
+            for (int i = 0; i < limits.length; i++) {
+                if (!expiryDate.isAfter(limits[i])) {
+                    counts[i]++;
+                }
+            }
+        }
+        
+        List<FacetValueDto> values = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            int days = EXPIRY_WINDOW_DAYS[i];
+            values.add(new FacetValueDto(String.valueOf(days), "Expires within " + days + " days", counts[i]));
+        }
+        return values;
+    }
+    
+    static int priceBucket(float price) {
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDARIES.length && price >= PRICE_BOUNDARIES[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+    
+    private static String formatPrice(float price) {
+        return String.valueOf((int) price);
+    }
+    
+    private static long countIn(BitSet docs, BitSet base) {
+        BitSet matching = (BitSet) docs.clone();
+        matching.and(base);
+        return matching.cardinality();
+    }
+    
+    /**
+     * Highest counts first, ties by label, capped to keep responses small
+     */
+    private static List<FacetValueDto> topValues(List<FacetValueDto> values) {
+        values.sort(Comparator.comparing(FacetValueDto::getCount).reversed()
+            .thenComparing(FacetValueDto::getLabel, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return values.size() > MAX_VALUES_PER_FACET ? new ArrayList<>(values.subList(0, MAX_VALUES_PER_FACET)) : values;
+    }
+}
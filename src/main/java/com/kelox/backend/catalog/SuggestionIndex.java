@@ -0,0 +1,358 @@
+package com.kelox.backend.catalog;
+
+import com.kelox.backend.dto.ProductSuggestionDto;
+import com.kelox.backend.enums.SuggestionField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over product names, codes and manufacturers
+ * A radix (path-compressed) trie keyed by every word-start suffix of each value, so "nitr" finds
+ * "Examination gloves nitrile". Every node caches its best suggestions, so a lookup is a walk down
+ * the prefix and a copy - independent of how many values match. Updated in place under a write lock.
+ */
+public final class SuggestionIndex {
+    
+    public static final int MAX_SUGGESTIONS = 10;
+    public static final int MAX_KEY_LENGTH = 64;
+    static final int MAX_KEYS_PER_TERM = 8;
+    
+    private static final Term[] NO_TERMS = new Term[0];
+    private static final Comparator<Term> RANKING = Comparator.comparingInt((Term term) -> term.count).reversed()
+        .thenComparing(term -> term.display, String.CASE_INSENSITIVE_ORDER)
+        .thenComparing(term -> term.id);
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Long, List<Term>> termsByProduct = new HashMap<>();
+    
+    /**
+     * Drop everything and index the given entries
+     */
+    public void replaceAll(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            root.children = null;
+            root.terminals = null;
+            terms.clear();
+            termsByProduct.clear();
+            for (CatalogEntry entry : entries) {
+                addProduct(entry, null);
+            }
+            recomputeSubtree(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Insert or replace the given entries and remove the given product ids
+     */
+    public void apply(Collection<CatalogEntry> upserts, Collection<Long> removedIds) {
+        lock.writeLock().lock();
+        try {
+            Set<Term> touched = new HashSet<>();
+            removedIds.forEach(id -> removeProduct(id, touched));
+            for (CatalogEntry entry : upserts) {
+                removeProduct(entry.getId(), touched);
+                addProduct(entry, touched);
+            }
+            refresh(touched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Best values starting with the prefix (at the start of any word), most common first
+     */
+    public List<ProductSuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            List<ProductSuggestionDto> suggestions = new ArrayList<>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && i < limit; i++) {
+                Term term = node.top[i];
+                suggestions.add(new ProductSuggestionDto(term.display, term.field, term.count));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static String normalize(String value) {
+        String normalized = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+    
+    private void addProduct(CatalogEntry entry, Set<Term> touched) {
+        List<Term> productTerms = new ArrayList<>(3);
+        addTerm(productTerms, SuggestionField.NAME, entry.getName(), touched);
+        addTerm(productTerms, SuggestionField.CODE, entry.getCode(), touched);
+        addTerm(productTerms, SuggestionField.MANUFACTURER, entry.getManufacturer(), touched);
+        termsByProduct.put(entry.getId(), productTerms);
+    }
+    
+    private void addTerm(List<Term> productTerms, SuggestionField field, String value, Set<Term> touched) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String normalized = normalize(value);
+        Term term = terms.computeIfAbsent(field + ":" + normalized, id -> {
+            Term created = new Term(id, field, value.trim(), wordStarts(normalized));
+            for (String key : created.keys) {
+                Node node = insert(key);
+                if (node.terminals == null) {
+                    node.terminals = new ArrayList<>(1);
+                }
+                node.terminals.add(created);
+            }
+            return created;
+        });
+        term.count++;
+        productTerms.add(term);
+        if (touched != null) {
+            touched.add(term);
+        }
+    }
+    
+    private void removeProduct(Long productId, Set<Term> touched) {
+        List<Term> productTerms = termsByProduct.remove(productId);
+        if (productTerms == null) {
+            return;
+        }
+        for (Term term : productTerms) {
+            term.count--;
+            touched.add(term);
+        }
+    }
+    
+    /**
+     * Drop terms no product uses any more and recompute cached suggestions along every affected path
+     */
+    private void refresh(Set<Term> touched) {
+        Map<Node, Integer> depths = new IdentityHashMap<>();
+        for (Term term : touched) {
+            boolean dead = term.count <= 0;
+            if (dead) {
+                terms.remove(term.id);
+            }
+            for (String key : term.keys) {
+                List<Node> path = path(key);
+                if (path == null) {
+                    continue;
+                }
+                Node node = path.get(path.size() - 1);
+                if (dead && node.terminals != null) {
+                    node.terminals.remove(term);
+                    prune(path);
+                }
+                for (int depth = 0; depth < path.size(); depth++) {
+                    depths.put(path.get(depth), depth);
+                }
+            }
+        }
+        
+        // Deepest first, so every parent sees its children's fresh suggestions
+        List<Map.Entry<Node, Integer>> nodes = new ArrayList<>(depths.entrySet());
+        nodes.sort(Map.Entry.<Node, Integer>comparingByValue().reversed());
+        nodes.forEach(entry -> recompute(entry.getKey()));
+    }
+    
+    /**
+     * Remove empty leaves at the end of the path
+     */
+    private static void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            boolean empty = (node.terminals == null || node.terminals.isEmpty())
+                && (node.children == null || node.children.isEmpty());
+            if (!empty) {
+                return;
+            }
+            path.get(i - 1).children.remove(node.edge.charAt(0));
+        }
+    }
+    
+    private Node insert(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            char first = key.charAt(i);
+            Node child = node.children == null ? null : node.children.get(first);
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.putChild(child);
+                return child;
+            }
+            int common = commonPrefixLength(child.edge, key, i);
+            if (common < child.edge.length()) {
+                // Split the edge at the point where the key diverges
+                Node middle = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                middle.putChild(child);
+                middle.top = child.top;
+                node.putChild(middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+    
+    /**
+     * Node at or just below the prefix, or null when nothing starts with it
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children == null ? null : node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefixLength(child.edge, prefix, i);
+            if (i + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.edge.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+    
+    /**
+     * Nodes from the root to the node holding exactly this key, or null when the key is not indexed
+     */
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children == null ? null : node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.edge, i)) {
+                return null;
+            }
+            path.add(child);
+            node = child;
+            i += child.edge.length();
+        }
+        return path;
+    }
+    
+    private void recomputeSubtree(Node node) {
+        if (node.children != null) {
+            node.children.values().forEach(this::recomputeSubtree);
+        }
+        recompute(node);
+    }
+    
+    private static void recompute(Node node) {
+        Set<Term> candidates = new HashSet<>();
+        if (node.terminals != null) {
+            candidates.addAll(node.terminals);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+        }
+        candidates.removeIf(term -> term.count <= 0);
+        
+        Term[] top = candidates.toArray(NO_TERMS);
+        Arrays.sort(top, RANKING);
+        node.top = top.length > MAX_SUGGESTIONS ? Arrays.copyOf(top, MAX_SUGGESTIONS) : top;
+    }
+    
+    /**
+     * Every suffix of the value that starts a word, e.g. "nitrile gloves m" gives itself, "gloves m" and "m"
+     */
+    private static List<String> wordStarts(String normalized) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length() && keys.size() < MAX_KEYS_PER_TERM; i++) {
+            boolean wordStart = Character.isLetterOrDigit(normalized.charAt(i))
+                && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)));
+            if (wordStart) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        if (keys.isEmpty()) {
+            keys.add(normalized);
+        }
+        return keys;
+    }
+    
+    private static int commonPrefixLength(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static final class Term {
+        private final String id;
+        private final SuggestionField field;
+        private final String display;
+        private final List<String> keys;
+        private int count;
+        
+        private Term(String id, SuggestionField field, String display, List<String> keys) {
+            this.id = id;
+            this.field = field;
+            this.display = display;
+            this.keys = keys;
+        }
+    }
+    
+    private static final class Node {
+        private String edge;
+        private Map<Character, Node> children;
+        private List<Term> terminals;
+        private Term[] top = NO_TERMS;
+        
+        private Node(String edge) {
+            this.edge = edge;
+        }
+        
+        private void putChild(Node child) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(child.edge.charAt(0), child);
+        }
+    }
+}
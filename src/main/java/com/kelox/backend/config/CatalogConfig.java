@@ -0,0 +1,19 @@
+package com.kelox.backend.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Getter
+public class CatalogConfig {
+    
+    @Value("${marketplace.catalog.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+    
+    @Value("${marketplace.catalog.cache.shared-max-age-seconds:60}")
+    private long sharedMaxAgeSeconds;
+    
+    @Value("${marketplace.catalog.cache.version-epoch-ms:60000}")
+    private long versionEpochMs;
+}
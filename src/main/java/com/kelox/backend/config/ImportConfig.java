@@ -0,0 +1,22 @@
+package com.kelox.backend.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Getter
+public class ImportConfig {
+    
+    @Value("${marketplace.import.threads:2}")
+    private int threads;
+    
+    @Value("${marketplace.import.queue-capacity:10}")
+    private int queueCapacity;
+    
+    @Value("${marketplace.import.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${marketplace.import.max-upload-bytes:52428800}")
+    private long maxUploadBytes;
+}
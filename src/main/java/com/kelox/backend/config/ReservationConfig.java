@@ -0,0 +1,16 @@
+package com.kelox.backend.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Getter
+public class ReservationConfig {
+    
+    @Value("${marketplace.reservations.cart-ttl-ms:1800000}")
+    private long cartTtlMs;
+    
+    @Value("${marketplace.reservations.order-ttl-ms:604800000}")
+    private long orderTtlMs;
+}
@@ -1,5 +1,6 @@
 package com.kelox.backend.config;
 
+import com.kelox.backend.filter.IdempotencyFilter;
 import com.kelox.backend.filter.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
@@ -17,6 +18,7 @@ public class WebConfig implements WebMvcConfigurer {
     
     private final AdminSecurityInterceptor adminSecurityInterceptor;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final CorsConfigurationSource corsConfigurationSource;
     
     @Override
@@ -52,5 +54,13 @@ public class WebConfig implements WebMvcConfigurer {
         registrationBean.setOrder(1);
         return registrationBean;
     }
+    
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration() {
+        FilterRegistrationBean<IdempotencyFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(idempotencyFilter);
+        registrationBean.addUrlPatterns("/api/*");
+        registrationBean.setOrder(2); // After the JWT filter, which identifies the caller
+        return registrationBean;
+    }
 }
-
@@ -2,6 +2,7 @@ package com.kelox.backend.controller;
 
 import com.kelox.backend.dto.*;
 import com.kelox.backend.service.HospitalService;
+import com.kelox.backend.service.InventorySyncService;
 import com.kelox.backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ public class AdminHospitalController {
     
     private final HospitalService hospitalService;
     private final ProductService productService;
+    private final InventorySyncService inventorySyncService;
     
     /**
      * Create a new hospital profile
@@ -83,6 +85,58 @@ public class AdminHospitalController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Inventory sync step 1: compare bucket hashes
+     * Requires: X-Admin-Secret header
+     * See InventorySyncService for how lots are bucketed and hashed
+     * 
+     * POST /api/admin/hospitals/{hospitalId}/products/sync/buckets
+     */
+    @PostMapping("/{hospitalId}/products/sync/buckets")
+    public ResponseEntity<InventoryBucketsResponse> compareInventoryBuckets(
+            @PathVariable Long hospitalId,
+            @RequestBody InventoryBucketsRequest request) {
+        
+        log.info("Admin API: Comparing inventory buckets for hospital {}", hospitalId);
+        List<String> changed = inventorySyncService.findChangedBuckets(hospitalId, request.getBuckets());
+        return ResponseEntity.ok(new InventoryBucketsResponse(changed));
+    }
+    
+    /**
+     * Inventory sync step 2: compare per-lot hashes of the changed buckets
+     * Requires: X-Admin-Secret header
+     * Returns the lots to send in full and the previously synced lots the ERP no longer lists
+     * 
+     * POST /api/admin/hospitals/{hospitalId}/products/sync/diff
+     */
+    @PostMapping("/{hospitalId}/products/sync/diff")
+    public ResponseEntity<InventoryDiffResponse> diffInventory(
+            @PathVariable Long hospitalId,
+            @RequestBody InventoryDiffRequest request) {
+        
+        log.info("Admin API: Diffing {} inventory items for hospital {}",
+            request.getItems() != null ? request.getItems().size() : 0, hospitalId);
+        InventoryDiffResponse response = inventorySyncService.diff(hospitalId, request.getBuckets(), request.getItems());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Inventory sync step 3: apply the requested lots and remove the absent ones
+     * Requires: X-Admin-Secret header
+     * Quantities replace the current stock (unlike POST /{hospitalId}/products, which adds to it)
+     * 
+     * POST /api/admin/hospitals/{hospitalId}/products/sync/apply
+     */
+    @PostMapping("/{hospitalId}/products/sync/apply")
+    public ResponseEntity<InventorySyncApplyResponse> applyInventorySync(
+            @PathVariable Long hospitalId,
+            @RequestBody InventorySyncApplyRequest request) {
+        
+        log.info("Admin API: Applying inventory sync for hospital {}", hospitalId);
+        InventorySyncApplyResponse response = inventorySyncService.apply(hospitalId, request);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get all products for a hospital
      * Requires: X-Admin-Secret header
@@ -1,14 +1,17 @@
 package com.kelox.backend.controller;
 
+import com.kelox.backend.dto.OrderEventResponse;
 import com.kelox.backend.dto.OrderResponse;
 import com.kelox.backend.dto.UpdateOrderStatusRequest;
 import com.kelox.backend.dto.UpdatePaidStatusRequest;
+import com.kelox.backend.service.OrderEventService;
 import com.kelox.backend.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -18,6 +21,7 @@ import java.util.UUID;
 public class AdminOrderController {
     
     private final OrderService orderService;
+    private final OrderEventService orderEventService;
     
     /**
      * Update order status
@@ -62,5 +66,37 @@ public class AdminOrderController {
         
         return ResponseEntity.ok(order);
     }
+    
+    /**
+     * Get the history of an order: creation, status changes and payment, oldest first
+     * Requires: X-Admin-Secret header
+     * 
+     * GET /api/admin/orders/{orderId}/events
+     */
+    @GetMapping("/{orderId}/events")
+    public ResponseEntity<List<OrderEventResponse>> getOrderEvents(@PathVariable UUID orderId) {
+        log.info("Admin fetching events of order {}", orderId);
+        
+        return ResponseEntity.ok(orderEventService.getTimeline(orderId));
+    }
+    
+    /**
+     * Feed of order events across all orders, oldest first
+     * Requires: X-Admin-Secret header
+     * Without afterId, starts with the last day's events; then pass the last event ID received as afterId
+     * 
+     * GET /api/admin/orders/events?afterId=1200&limit=100
+     * 
+     * @param afterId ID of the last event already received
+     * @param limit Maximum events per call (default 100, max 500)
+     */
+    @GetMapping("/events")
+    public ResponseEntity<List<OrderEventResponse>> getRecentOrderEvents(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        
+        log.debug("Admin fetching order events after {}", afterId);
+        
+        return ResponseEntity.ok(orderEventService.getRecentEvents(afterId, limit));
+    }
 }
-
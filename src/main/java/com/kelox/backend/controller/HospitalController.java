@@ -4,18 +4,28 @@ import com.kelox.backend.dto.AddProductsRequest;
 import com.kelox.backend.dto.CreateDeliveryAddressRequest;
 import com.kelox.backend.dto.DeliveryAddressDto;
 import com.kelox.backend.dto.HospitalProfileResponse;
+import com.kelox.backend.dto.ProductImportJobResponse;
 import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.dto.ScanIntakeRequest;
+import com.kelox.backend.dto.ScanIntakeResponse;
 import com.kelox.backend.dto.UpdateDeliveryAddressRequest;
 import com.kelox.backend.dto.WalletTransactionResponse;
 import com.kelox.backend.service.HospitalService;
+import com.kelox.backend.service.ProductImportService;
+import com.kelox.backend.service.ProductScanService;
 import com.kelox.backend.service.ProductService;
 import com.kelox.backend.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +37,8 @@ public class HospitalController {
     
     private final HospitalService hospitalService;
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductScanService productScanService;
     private final JwtUtil jwtUtil;
     
     /**
@@ -223,6 +235,136 @@ public class HospitalController {
         return ResponseEntity.status(HttpStatus.CREATED).body(products);
     }
     
+    /**
+     * Add scanned products to user's hospital
+     * Requires: Authorization Bearer token
+     * User must be the hospital owner
+     * Each barcode is a raw GS1 element string with GTIN (01), expiry (17) and lot (10); name, manufacturer,
+     * price and unit come from the hospital's latest product with the same GTIN. Scans of the same lot add up.
+     * 
+     * POST /api/hospitals/my-products/scans
+     */
+    @PostMapping("/my-products/scans")
+    public ResponseEntity<ScanIntakeResponse> addScannedProductsToMyHospital(
+            @RequestBody ScanIntakeRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        log.info("User {} adding scanned products to their hospital", userId);
+        
+        HospitalProfileResponse hospital = hospitalService.getHospitalByOwnerId(userId);
+        ScanIntakeResponse response = productScanService.addScannedProducts(hospital.getId(), request.getBarcodes());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Import products into user's hospital from a CSV file
+     * Requires: Authorization Bearer token
+     * User must be the hospital owner
+     * The request body is the raw file (Content-Type: text/csv) with a header row naming the columns:
+     * name, manufacturer, code, lotNumber, expiryDate (YYYY-MM-DD), description (optional), price, quantity, unit.
+     * Rows are validated like POST /my-products and committed in chunks in the background; poll the job for progress.
+     * 
+     * POST /api/hospitals/my-products/imports?fileName=stock.csv
+     */
+    @PostMapping(value = "/my-products/imports", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ProductImportJobResponse> importProductsToMyHospital(
+            @RequestParam(required = false) String fileName,
+            @RequestHeader("Authorization") String authHeader,
+            HttpServletRequest request) throws IOException {
+        
+        // Extract and validate token
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        log.info("User {} importing products from {}", userId, fileName);
+        
+        HospitalProfileResponse hospital = hospitalService.getHospitalByOwnerId(userId);
+        ProductImportJobResponse job = productImportService.startImport(
+            hospital.getId(), userId, fileName, request.getInputStream());
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    /**
+     * Get recent product imports of user's hospital, newest first
+     * Requires: Authorization Bearer token
+     * 
+     * GET /api/hospitals/my-products/imports
+     */
+    @GetMapping("/my-products/imports")
+    public ResponseEntity<List<ProductImportJobResponse>> getMyProductImports(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        HospitalProfileResponse hospital = hospitalService.getHospitalByOwnerId(userId);
+        
+        return ResponseEntity.ok(productImportService.getRecentJobs(hospital.getId()));
+    }
+    
+    /**
+     * Get status, progress and throughput of a product import
+     * Requires: Authorization Bearer token
+     * 
+     * GET /api/hospitals/my-products/imports/{jobId}
+     */
+    @GetMapping("/my-products/imports/{jobId}")
+    public ResponseEntity<ProductImportJobResponse> getMyProductImport(
+            @PathVariable UUID jobId,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        HospitalProfileResponse hospital = hospitalService.getHospitalByOwnerId(userId);
+        
+        return ResponseEntity.ok(productImportService.getJob(jobId, hospital.getId()));
+    }
+    
+    /**
+     * Download the rejected rows of a product import as CSV (line, error, row)
+     * Requires: Authorization Bearer token
+     * 
+     * GET /api/hospitals/my-products/imports/{jobId}/errors
+     */
+    @GetMapping(value = "/my-products/imports/{jobId}/errors", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> getMyProductImportErrors(
+            @PathVariable UUID jobId,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        HospitalProfileResponse hospital = hospitalService.getHospitalByOwnerId(userId);
+        // Resolve ownership before the response is committed so a wrong ID is still a 404
+        productImportService.getJob(jobId, hospital.getId());
+        
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .body(out -> productImportService.writeErrorReport(jobId, hospital.getId(), out));
+    }
+    
     /**
      * Get wallet transactions for user's hospital
      * Requires: Authorization Bearer token
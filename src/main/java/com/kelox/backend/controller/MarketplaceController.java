@@ -1,13 +1,34 @@
 package com.kelox.backend.controller;
 
+import com.kelox.backend.dto.ProductFacetsResponse;
+import com.kelox.backend.dto.ProductFilterRequest;
+import com.kelox.backend.dto.ProductChangesResponse;
+import com.kelox.backend.dto.ProductMatchDto;
+import com.kelox.backend.dto.ProductPageResponse;
 import com.kelox.backend.dto.ProductResponse;
-import com.kelox.backend.service.ProductService;
+import com.kelox.backend.dto.ProductSearchResponse;
+import com.kelox.backend.dto.ProductSuggestionDto;
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.config.CatalogConfig;
+import com.kelox.backend.service.CatalogVersionService;
+import com.kelox.backend.service.MarketplaceCatalogService;
+import com.kelox.backend.service.ProductExportService;
+import com.kelox.backend.service.ProductJsonCache;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/marketplace")
@@ -15,49 +36,302 @@ import java.util.List;
 @Slf4j
 public class MarketplaceController {
     
-    private final ProductService productService;
+    static final String SURROGATE_KEY = "Surrogate-Key";
+    static final String SURROGATE_CONTROL = "Surrogate-Control";
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    private final MarketplaceCatalogService marketplaceCatalogService;
+    private final CatalogVersionService catalogVersionService;
+    private final ProductJsonCache productJsonCache;
+    private final ProductExportService productExportService;
+    private final CatalogConfig catalogConfig;
     
     /**
-     * Get all products in the marketplace
+     * Get products in the marketplace, one page at a time
      * Public endpoint - no authentication required
      * 
-     * @return List of all available products
+     * GET /api/marketplace/products?sort=EXPIRY_DATE&direction=ASC&size=50&cursor=...
+     *     &manufacturer=...&unit=BOX&minPrice=10&maxPrice=50&expiresWithinDays=90&sellerHospitalId=...
+     * 
+     * @param filter Optional filters; repeat manufacturer, unit or sellerHospitalId to match any of several values
+     * @param sort Sort key: EXPIRY_DATE (default), PRICE or ID
+     * @param direction ASC (default) or DESC
+     * @param cursor Opaque nextCursor from the previous page; omit for the first page
+     * @param size Page size (default 50, max 200)
+     * @param ifNoneMatch ETag from a previous response; answered with 304 if the catalog hasn't changed
+     * @return Page of products with the cursor for the next page
      */
     @GetMapping("/products")
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        log.info("Fetching all products from marketplace");
-        List<ProductResponse> products = productService.getAllProducts();
-        log.info("Found {} products in marketplace", products.size());
+    public ResponseEntity<byte[]> getProducts(
+            ProductFilterRequest filter,
+            @RequestParam(defaultValue = "EXPIRY_DATE") ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        log.info("Fetching marketplace products page (sort: {} {}, size: {}, filter: {})", sort, direction, size, filter);
+        return cacheable(catalogVersionService.listingEtag(null), ifNoneMatch, "products", () -> {
+            long readVersion = productJsonCache.startRead();
+            ProductPageResponse page = marketplaceCatalogService.getProductsPage(null, filter, sort, direction, cursor, size);
+            log.info("Returning {} products (hasMore: {})", page.getItems().size(), page.getHasMore());
+            return productJsonCache.encodePage(page, readVersion);
+        });
+    }
+    
+    /**
+     * Get several products by ID in one request
+     * Public endpoint - no authentication required
+     * Meant for rendering carts, offers and order histories; expired (unlisted) lots are included
+     * 
+     * GET /api/marketplace/products?ids=1,2,3
+     * 
+     * @param ids Product IDs (max 100, duplicates ignored)
+     * @return Products in the order requested; IDs that don't exist are left out
+     */
+    @GetMapping(value = "/products", params = "ids")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        log.info("Fetching {} marketplace products by ID", ids.size());
+        List<ProductResponse> products = marketplaceCatalogService.getProductsByIds(ids);
         return ResponseEntity.ok(products);
     }
     
+    /**
+     * Delta sync for clients keeping an offline copy of the catalog
+     * Public endpoint - no authentication required
+     * Start with since=0 (a full copy, paged), then keep passing back nextSince - and nextAfterId while
+     * hasMore is true. Each call only returns what changed, so syncing costs churn rather than catalog size.
+     * 
+     * GET /api/marketplace/products/changes?since=48213&size=500
+     * 
+     * @param since nextSince from the previous call, 0 for a first sync
+     * @param afterId nextAfterId from the previous call when it had more
+     * @param size Maximum changes per call (default 500, max 1000)
+     * @return Changed listed products, tombstones for unlisted or deleted ones, and where to continue
+     */
+    @GetMapping("/products/changes")
+    public ResponseEntity<ProductChangesResponse> getProductChanges(
+            @RequestParam Long since,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size) {
+        
+        log.debug("Fetching marketplace product changes since {} (after id {})", since, afterId);
+        ProductChangesResponse changes = marketplaceCatalogService.getChangesSince(since, afterId, size);
+        return ResponseEntity.ok(changes);
+    }
+    
+    /**
+     * Live feed of product changes as Server-Sent Events
+     * Public endpoint - no authentication required
+     * Sends a "product" event (CatalogChangeEventDto) for every committed create, update, quantity change and
+     * delisting. A "resync" event means changes were dropped because the client fell behind: reload the catalog
+     * and keep listening. Reconnecting with Last-Event-ID resumes without gaps while the server still has them.
+     * 
+     * GET /api/marketplace/products/stream
+     * 
+     * @param lastEventId Id of the last event received, sent automatically by EventSource on reconnect
+     * @return Event stream
+     */
+    @GetMapping(value = "/products/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Opening catalog change feed (Last-Event-ID: {})", lastEventId);
+        return marketplaceCatalogService.subscribeToChanges(lastEventId);
+    }
+    
+    /**
+     * Export the whole marketplace catalog as newline-delimited JSON (one product per line, ordered by id)
+     * Public endpoint - no authentication required
+     * Streamed straight from a database cursor, for partner systems and BI jobs that need every product
+     * Only a few exports run at once; further requests get 503 with Retry-After
+     * 
+     * GET /api/marketplace/products/export?manufacturer=...&unit=BOX
+     * 
+     * @param filter Optional filters (same parameters as the product listing)
+     * @return NDJSON stream of products
+     */
+    @GetMapping(value = "/products/export", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> exportProducts(ProductFilterRequest filter, HttpServletResponse response) {
+        log.info("Exporting marketplace products (filter: {})", filter);
+        productExportService.validate(filter);
+        WebAsyncTask<Void> export = productExportService.startExport(filter, response);
+        response.setContentType(APPLICATION_NDJSON.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"kelox-products.ndjson\"");
+        return export;
+    }
+    
+    /**
+     * Get facet counts for the marketplace listing filters
+     * Public endpoint - no authentication required
+     * Each facet is counted with all other selected filters applied, so the UI can show
+     * how many products each value would add or leave
+     * 
+     * GET /api/marketplace/products/facets?manufacturer=...&unit=BOX&minPrice=10&maxPrice=50
+     * 
+     * @param filter Current filter selection (same parameters as the product listing)
+     * @return Matching product total and counts per manufacturer, unit, seller, price range and expiry window
+     */
+    @GetMapping("/products/facets")
+    public ResponseEntity<ProductFacetsResponse> getProductFacets(ProductFilterRequest filter) {
+        log.info("Fetching marketplace product facets (filter: {})", filter);
+        ProductFacetsResponse facets = marketplaceCatalogService.getFacets(filter);
+        return ResponseEntity.ok(facets);
+    }
+    
+    /**
+     * Search products by name, code, manufacturer and description
+     * Public endpoint - no authentication required
+     * Results are ranked by relevance, then soonest expiry
+     * 
+     * GET /api/marketplace/products/search?q=surgical gloves&page=0&size=20
+     * 
+     * @param q Search text (supports quoted phrases, OR and -exclusions)
+     * @param page Zero-based page number (default 0)
+     * @param size Page size (default 20, max 200)
+     * @return Page of matching products
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<ProductSearchResponse> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        
+        log.info("Searching marketplace products for '{}' (page: {}, size: {})", q, page, size);
+        ProductSearchResponse results = marketplaceCatalogService.searchProducts(q, page, size);
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * Suggest product names, codes and manufacturers as the user types
+     * Public endpoint - no authentication required
+     * Matches the prefix against the start of every word, most common values first
+     * 
+     * GET /api/marketplace/products/suggest?prefix=nitr&limit=10
+     * 
+     * @param prefix What the user has typed so far
+     * @param limit Maximum number of suggestions (default and max 10)
+     * @return Suggested values with the attribute they come from and how many products carry them
+     */
+    @GetMapping("/products/suggest")
+    public ResponseEntity<List<ProductSuggestionDto>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        
+        log.debug("Suggesting marketplace products for prefix '{}'", prefix);
+        List<ProductSuggestionDto> suggestions = marketplaceCatalogService.suggest(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    /**
+     * "Did you mean" lookup for a product code or lot number that may contain typos
+     * Public endpoint - no authentication required
+     * 
+     * GET /api/marketplace/products/did-you-mean?q=MDS-1O234&limit=10
+     * 
+     * @param q Code or lot number as typed (at least 3 characters)
+     * @param limit Maximum number of matches (default 10, max 50)
+     * @return Closest products by trigram similarity, best first, with the field that matched
+     */
+    @GetMapping("/products/did-you-mean")
+    public ResponseEntity<List<ProductMatchDto>> findSimilarProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        
+        log.info("Looking up products similar to '{}'", q);
+        List<ProductMatchDto> matches = marketplaceCatalogService.findSimilarProducts(q, limit);
+        return ResponseEntity.ok(matches);
+    }
+    
     /**
      * Get a specific product by ID
      * Public endpoint - no authentication required
      * 
      * @param productId The ID of the product to retrieve
+     * @param ifNoneMatch ETag from a previous response; answered with 304 if the product hasn't changed
      * @return Product details
      */
     @GetMapping("/products/{productId}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long productId) {
+    public ResponseEntity<ProductResponse> getProductById(
+            @PathVariable Long productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Fetching product with ID: {} from marketplace", productId);
-        ProductResponse product = productService.getProductById(productId);
-        return ResponseEntity.ok(product);
+        return cacheable(catalogVersionService.productEtag(productId), ifNoneMatch, "product-" + productId,
+            () -> marketplaceCatalogService.getProductById(productId));
     }
     
     /**
-     * Get all products from a specific hospital
+     * Get products from a specific hospital, one page at a time
      * Public endpoint - no authentication required
      * 
+     * GET /api/marketplace/hospitals/{hospitalId}/products?sort=EXPIRY_DATE&direction=ASC&size=50&cursor=...
+     * 
      * @param hospitalId The ID of the hospital
-     * @return List of products from the specified hospital
+     * @param filter Optional filters as for /products; the seller is always the path hospital
+     * @param ifNoneMatch ETag from a previous response; answered with 304 if the hospital's products haven't changed
+     * @return Page of products from the specified hospital with the cursor for the next page
      */
     @GetMapping("/hospitals/{hospitalId}/products")
-    public ResponseEntity<List<ProductResponse>> getProductsByHospital(@PathVariable Long hospitalId) {
-        log.info("Fetching products for hospital ID: {} from marketplace", hospitalId);
-        List<ProductResponse> products = productService.getProductsByHospital(hospitalId);
-        log.info("Found {} products for hospital ID: {}", products.size(), hospitalId);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getProductsByHospital(
+            @PathVariable Long hospitalId,
+            ProductFilterRequest filter,
+            @RequestParam(defaultValue = "EXPIRY_DATE") ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        log.info("Fetching products page for hospital ID: {} from marketplace (sort: {} {})", hospitalId, sort, direction);
+        return cacheable(catalogVersionService.listingEtag(hospitalId), ifNoneMatch, "seller-" + hospitalId, () -> {
+            long readVersion = productJsonCache.startRead();
+            ProductPageResponse page = marketplaceCatalogService.getProductsPage(hospitalId, filter, sort, direction, cursor, size);
+            log.info("Returning {} products for hospital ID: {} (hasMore: {})", page.getItems().size(), hospitalId, page.getHasMore());
+            return productJsonCache.encodePage(page, readVersion);
+        });
+    }
+    
+    /**
+     * Wrap a catalog read in conditional-GET handling
+     * The ETag is taken before the body is read, so a concurrent write can only make the tag older than
+     * the body (forcing a refetch later), never the other way round. Browsers must revalidate every time;
+     * shared caches may serve for a short while and can be purged by surrogate key
+     * (products, seller-{id}, product-{id}). Listings are written from pre-encoded product JSON.
+     */
+    private <T> ResponseEntity<T> cacheable(String etag, String ifNoneMatch, String surrogateKey, Supplier<T> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache().cachePublic());
+        headers.set(SURROGATE_KEY, surrogateKey);
+        headers.set(SURROGATE_CONTROL, "max-age=" + catalogConfig.getSharedMaxAgeSeconds());
+        
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        // Loading the body reports 404 for products and hospitals that don't exist
+        T value = body.get();
+        if (ifNoneMatch != null && ifNoneMatch.trim().equals("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(value);
+    }
+    
+    /**
+     * If-None-Match uses weak comparison: W/ prefixes are ignored
+     * * is not matched here; it only applies once the resource is known to exist (see cacheable)
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
-
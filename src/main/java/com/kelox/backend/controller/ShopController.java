@@ -1,12 +1,15 @@
 package com.kelox.backend.controller;
 
+import com.kelox.backend.dto.AddToCartBatchRequest;
 import com.kelox.backend.dto.AddToCartRequest;
+import com.kelox.backend.dto.OrderEventResponse;
 import com.kelox.backend.dto.OrderResponse;
 import com.kelox.backend.dto.RequestDeliveryPriceRequest;
 import com.kelox.backend.dto.SalesHistoryResponse;
 import com.kelox.backend.dto.ShoppingCartResponse;
 
 import java.util.List;
+import com.kelox.backend.service.OrderEventService;
 import com.kelox.backend.service.ProductService;
 import com.kelox.backend.service.ShopService;
 import com.kelox.backend.util.JwtUtil;
@@ -26,6 +29,7 @@ public class ShopController {
     
     private final ShopService shopService;
     private final ProductService productService;
+    private final OrderEventService orderEventService;
     private final JwtUtil jwtUtil;
     
     /**
@@ -55,6 +59,33 @@ public class ShopController {
         return ResponseEntity.ok(cart);
     }
     
+    /**
+     * Add several products to shopping cart in one request
+     * Requires: Authorization Bearer token
+     * User must own a hospital
+     * All items are validated first; nothing is added if any fails
+     * 
+     * POST /api/shop/cart/add-batch
+     */
+    @PostMapping("/cart/add-batch")
+    public ResponseEntity<ShoppingCartResponse> addProductsToCart(
+            @RequestBody AddToCartBatchRequest request,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        // Extract and validate token
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        log.info("User {} adding {} items to cart", userId, request.getItems() != null ? request.getItems().size() : 0);
+        
+        ShoppingCartResponse cart = productService.addToCartBatch(request, userId);
+        
+        return ResponseEntity.ok(cart);
+    }
+    
     /**
      * Get shopping cart for a specific hospital
      * Requires: Authorization Bearer token
@@ -192,6 +223,31 @@ public class ShopController {
         return ResponseEntity.ok(orders);
     }
     
+    /**
+     * Get the history of one of the authenticated user's hospital's orders
+     * Creation, status changes and payment, oldest first
+     * Requires: Authorization Bearer token
+     * User must own the hospital that placed the order
+     * 
+     * GET /api/shop/orders/{orderId}/events
+     */
+    @GetMapping("/orders/{orderId}/events")
+    public ResponseEntity<List<OrderEventResponse>> getOrderEvents(
+            @PathVariable UUID orderId,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        // Extract and validate token
+        String token = extractTokenFromHeader(authHeader);
+        if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        log.info("User {} fetching events of order {}", userId, orderId);
+        
+        return ResponseEntity.ok(orderEventService.getTimelineForUser(orderId, userId));
+    }
+    
     /**
      * Get sales history for authenticated user's hospital (as seller)
      * Shows orders where user's hospital sold products
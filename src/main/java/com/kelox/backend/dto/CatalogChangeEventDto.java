@@ -0,0 +1,18 @@
+package com.kelox.backend.dto;
+
+import com.kelox.backend.enums.ProductChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangeEventDto {
+    
+    private Long sequence;
+    private ProductChangeType type;
+    private Long productId;
+    private Long sellerHospitalId;
+    private ProductResponse product;  // Current state; null once the product is no longer listed
+}
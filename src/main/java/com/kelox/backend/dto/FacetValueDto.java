@@ -0,0 +1,15 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueDto {
+    
+    private String value;  // Value to pass back as a filter parameter
+    private String label;
+    private Long count;
+}
@@ -0,0 +1,15 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBucketsRequest {
+    
+    private Map<String, String> buckets;  // Bucket ("00" to "ff") to bucket hash; empty buckets may be omitted
+}
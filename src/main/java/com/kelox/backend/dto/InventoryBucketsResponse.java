@@ -0,0 +1,15 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBucketsResponse {
+    
+    private List<String> changedBuckets;  // Buckets whose contents differ; diff only these
+}
@@ -0,0 +1,16 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryDiffRequest {
+    
+    private List<String> buckets;  // Buckets the items cover; null when they are the whole inventory
+    private List<InventoryItemHashDto> items;
+}
@@ -0,0 +1,16 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryDiffResponse {
+    
+    private List<ProductLotDto> requested;  // New or changed lots; send them in full to apply
+    private List<ProductLotDto> absent;  // Previously synced lots the ERP no longer lists; send them as removed
+}
@@ -0,0 +1,15 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItemHashDto {
+    
+    private String code;
+    private String lotNumber;
+    private String hash;  // Client-computed content hash of the ERP line
+}
@@ -0,0 +1,16 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySyncApplyRequest {
+    
+    private List<InventorySyncLineDto> products;
+    private List<ProductLotDto> removed;
+}
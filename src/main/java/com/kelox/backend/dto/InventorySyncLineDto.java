@@ -0,0 +1,29 @@
+package com.kelox.backend.dto;
+
+import com.kelox.backend.enums.Unit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySyncLineDto {
+    
+    private String name;
+    private String manufacturer;
+    private String code;
+    private String lotNumber;
+    private LocalDateTime expiryDate;
+    private String description;
+    private Float price;  // Only used when the lot is new
+    private Integer quantity;  // Stock on hand; replaces the current quantity
+    private Unit unit;
+    private String hash;
+    
+    public AddProductRequest toProductRequest() {
+        return new AddProductRequest(name, manufacturer, code, lotNumber, expiryDate, description, price, quantity, unit);
+    }
+}
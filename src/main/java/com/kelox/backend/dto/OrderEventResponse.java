@@ -0,0 +1,39 @@
+package com.kelox.backend.dto;
+
+import com.kelox.backend.entity.OrderEvent;
+import com.kelox.backend.enums.OrderEventType;
+import com.kelox.backend.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventResponse {
+    
+    private Long id;
+    private UUID orderId;
+    private OrderEventType eventType;
+    private OrderStatus fromStatus;
+    private OrderStatus toStatus;
+    private String details;
+    private String actor;
+    private LocalDateTime createdAt;
+    
+    public static OrderEventResponse fromEntity(OrderEvent event) {
+        return new OrderEventResponse(
+            event.getId(),
+            event.getOrderId(),
+            event.getEventType(),
+            event.getFromStatus(),
+            event.getToStatus(),
+            event.getDetails(),
+            event.getActor(),
+            event.getCreatedAt()
+        );
+    }
+}
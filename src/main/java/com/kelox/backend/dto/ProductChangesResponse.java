@@ -0,0 +1,19 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesResponse {
+    
+    private List<ProductResponse> products;  // Listed products created or changed, in change order
+    private List<Long> tombstones;  // IDs of products unlisted or deleted; drop them from the local copy
+    private Long nextSince;
+    private Long nextAfterId;  // Only set while hasMore - pass it back with nextSince
+    private Boolean hasMore;
+}
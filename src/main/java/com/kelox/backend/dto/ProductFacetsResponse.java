@@ -0,0 +1,24 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Facet counts for the current filter selection
+ * Each facet is counted with every filter applied except its own, so sibling values stay selectable
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsResponse {
+    
+    private Long total;
+    private List<FacetValueDto> manufacturers;
+    private List<FacetValueDto> units;
+    private List<FacetValueDto> sellers;
+    private List<FacetValueDto> priceRanges;
+    private List<FacetValueDto> expiryWindows;
+}
@@ -0,0 +1,34 @@
+package com.kelox.backend.dto;
+
+import com.kelox.backend.enums.Unit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Optional marketplace listing filters, bound from query parameters
+ * Repeat a parameter to match any of several values, e.g. ?manufacturer=A&manufacturer=B
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterRequest {
+    
+    private List<String> manufacturer;
+    private List<Unit> unit;
+    private Float minPrice;
+    private Float maxPrice;
+    private Integer expiresWithinDays;
+    private List<Long> sellerHospitalId;
+    
+    public boolean isEmpty() {
+        return (manufacturer == null || manufacturer.isEmpty())
+            && (unit == null || unit.isEmpty())
+            && minPrice == null
+            && maxPrice == null
+            && expiresWithinDays == null
+            && (sellerHospitalId == null || sellerHospitalId.isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+package com.kelox.backend.dto;
+
+import com.kelox.backend.entity.ProductImportJob;
+import com.kelox.backend.enums.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJobResponse {
+    
+    private UUID id;
+    private String fileName;
+    private ImportJobStatus status;
+    private Integer processedRows;
+    private Integer importedRows;
+    private Integer failedRows;
+    private Double rowsPerSecond;  // Null until the job has started
+    private String errorMessage;  // Why the whole job failed; per-row problems are in the error report
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    
+    public static ProductImportJobResponse fromEntity(ProductImportJob job) {
+        ProductImportJobResponse response = new ProductImportJobResponse();
+        response.setId(job.getId());
+        response.setFileName(job.getFileName());
+        response.setStatus(job.getStatus());
+        response.setProcessedRows(job.getProcessedRows());
+        response.setImportedRows(job.getImportedRows());
+        response.setFailedRows(job.getFailedRows());
+        response.setErrorMessage(job.getErrorMessage());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            response.setRowsPerSecond(job.getProcessedRows() * 1000.0 / millis);
+        }
+        
+        return response;
+    }
+}
@@ -0,0 +1,15 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductMatchDto {
+    
+    private ProductResponse product;
+    private Double score;        // Trigram similarity, 0 to 1
+    private String matchedField; // CODE or LOT_NUMBER
+}
@@ -0,0 +1,18 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+    
+    private List<ProductResponse> items;
+    private String nextCursor;  // Null when there are no more pages
+    private Boolean hasMore;
+    private Integer size;
+}
@@ -22,6 +22,7 @@ public class ProductResponse {
     private String description;
     private Float price;
     private Integer quantity;
+    private Integer availableQuantity;  // Quantity minus units held by carts and open orders
     private Unit unit;
     private Long sellerHospitalId;
     private String sellerHospitalName;
@@ -37,6 +38,7 @@ public class ProductResponse {
         response.setDescription(product.getDescription());
         response.setPrice(product.getPrice());
         response.setQuantity(product.getQuantity());
+        response.setAvailableQuantity(product.getAvailableQuantity());
         response.setUnit(product.getUnit());
         
         if (product.getSeller() != null) {
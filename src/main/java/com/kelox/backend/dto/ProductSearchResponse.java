@@ -0,0 +1,19 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    
+    private String query;
+    private List<ProductResponse> items;
+    private Integer page;
+    private Integer size;
+    private Boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.kelox.backend.dto;
+
+import com.kelox.backend.enums.SuggestionField;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestionDto {
+    
+    private String value;
+    private SuggestionField field;  // Which product attribute the value comes from
+    private Integer productCount;   // Listed products carrying this value
+}
@@ -0,0 +1,15 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanErrorDto {
+    
+    private Integer index;  // Position in the submitted barcodes list
+    private String barcode;
+    private String message;
+}
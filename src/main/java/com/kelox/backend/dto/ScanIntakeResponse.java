@@ -0,0 +1,16 @@
+package com.kelox.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanIntakeResponse {
+    
+    private List<ProductResponse> products;  // Lots created or topped up, once each
+    private List<ScanErrorDto> errors;  // Scans that were not imported
+}
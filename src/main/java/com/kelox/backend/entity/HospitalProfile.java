@@ -31,6 +31,9 @@ public class HospitalProfile {
     @Column(nullable = false)
     private Float balance = 0f;
 
+    @Version
+    private Long version;  // Concurrent balance updates fail instead of overwriting each other
+
     @OneToOne
     @JoinColumn(name = "owner_id", referencedColumnName = "id", nullable = true, unique = true)
     private User owner;
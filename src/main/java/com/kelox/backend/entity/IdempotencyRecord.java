@@ -0,0 +1,42 @@
+package com.kelox.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 400)
+    private String idempotencyKey;  // Caller and Idempotency-Key header
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private Integer statusCode;  // Null while the first request is in flight
+
+    private String contentType;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] responseBody;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean isCompleted() {
+        return statusCode != null;
+    }
+}
@@ -43,6 +43,9 @@ public class Offer {
     @Column(nullable = false)
     private OfferStatus status;
 
+    @Version
+    private Long version;  // Two status changes of the same offer cannot both succeed
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
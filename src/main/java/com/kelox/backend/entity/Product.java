@@ -43,6 +43,9 @@ public class Product {
     @Column(nullable = false)
     private Integer quantity;
 
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer reservedQuantity = 0;  // Held by carts and open orders; only written in SQL by StockReservationService
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Unit unit;
@@ -50,5 +53,18 @@ public class Product {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_hospital_id", nullable = false)
     private HospitalProfile seller;
-}
+    
+    @Column(nullable = false)
+    private Boolean listed = true;  // False once expired; hidden from the marketplace
+    
+    @Column(length = 128)
+    private String syncHash;  // Hash of the ERP line last synced into this lot; see InventorySyncService
 
+    @Version
+    private Long version;  // Bulk SQL updates of entity columns bump it too
+
+    // Units that can still be put in a cart
+    public int getAvailableQuantity() {
+        return Math.max(quantity - reservedQuantity, 0);
+    }
+}
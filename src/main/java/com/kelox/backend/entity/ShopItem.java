@@ -14,8 +14,9 @@ import lombok.NoArgsConstructor;
 public class ShopItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shop_items_id_seq")
+    @SequenceGenerator(name = "shop_items_id_seq", sequenceName = "shop_items_id_seq", allocationSize = 50)
+    private Long id;  // Sequence rather than identity so that inserts can be batched
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shopping_cart_id", nullable = false)
@@ -1,5 +1,6 @@
 package com.kelox.backend.entity;
 
+import com.kelox.backend.enums.ShopItemType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Entity
@@ -60,6 +62,13 @@ public class ShoppingCart {
         item.setShoppingCart(null);
     }
 
+    // Helper method to find the SINGLE item for a product
+    public Optional<ShopItem> findSingleItem(Long productId) {
+        return items.stream()
+            .filter(item -> item.getType() == ShopItemType.SINGLE && item.getProduct().getId().equals(productId))
+            .findFirst();
+    }
+
     // Helper method to clear all items
     public void clearItems() {
         items.clear();
@@ -0,0 +1,8 @@
+package com.kelox.backend.enums;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
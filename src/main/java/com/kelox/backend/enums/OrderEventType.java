@@ -0,0 +1,8 @@
+package com.kelox.backend.enums;
+
+public enum OrderEventType {
+    CREATED,
+    STATUS_CHANGED,
+    PAID,
+    UNPAID
+}
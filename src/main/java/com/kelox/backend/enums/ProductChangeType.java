@@ -0,0 +1,8 @@
+package com.kelox.backend.enums;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    QUANTITY_CHANGED,
+    DELISTED
+}
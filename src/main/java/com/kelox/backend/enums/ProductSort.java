@@ -0,0 +1,21 @@
+package com.kelox.backend.enums;
+
+/**
+ * Stable sort keys for marketplace product listings.
+ * Every key is paired with the product id as a tie-breaker so keyset pagination never skips or repeats rows.
+ */
+public enum ProductSort {
+    EXPIRY_DATE("expiryDate"),
+    PRICE("price"),
+    ID("id");
+
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+}
@@ -0,0 +1,7 @@
+package com.kelox.backend.enums;
+
+public enum SuggestionField {
+    NAME,
+    CODE,
+    MANUFACTURER
+}
@@ -0,0 +1,25 @@
+package com.kelox.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published whenever product rows are written
+ * Listeners that maintain derived catalog state should react after commit
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCatalogChangedEvent {
+    
+    private final List<ProductChange> changes;
+    
+    public Set<Long> getProductIds() {
+        return changes.stream()
+            .map(ProductChange::getProductId)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,16 @@
+package com.kelox.backend.event;
+
+import com.kelox.backend.enums.ProductChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductChange {
+    
+    private final Long productId;
+    private final Long sellerId;
+    private final ProductChangeType type;
+}
@@ -0,0 +1,17 @@
+package com.kelox.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * A bounded resource is fully in use; the client should retry after the given delay
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+    
+    private final int retryAfterSeconds;
+    
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,251 @@
+package com.kelox.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kelox.backend.entity.IdempotencyRecord;
+import com.kelox.backend.exception.ErrorResponse;
+import com.kelox.backend.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Idempotency-Key support for POST requests
+ * The first request with a key runs normally and its response is recorded; retries with the same key and the
+ * same method, URI and body get that response back with an Idempotent-Replayed header instead of running again.
+ * Keys are scoped to the caller. Server errors and transient client errors are not recorded, so they can be retried.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<Integer> NOT_RECORDED = Set.of(401, 403, 408, 409, 429);
+    
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+    private final int maxResponseBytes;
+    private final byte[] adminSecretCode;
+    
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${marketplace.idempotency.max-body-bytes:1048576}") int maxBodyBytes,
+                             @Value("${marketplace.idempotency.max-response-bytes:262144}") int maxResponseBytes,
+                             @Value("${admin.secret-code}") String adminSecretCode) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxResponseBytes = maxResponseBytes;
+        this.adminSecretCode = adminSecretCode.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE,
+                HEADER + " is only supported for request bodies up to " + maxBodyBytes + " bytes");
+            return;
+        }
+        
+        String key = caller(request) + ":" + idempotencyKey;
+        String requestHash = requestHash(request, body);
+        IdempotencyService.Outcome outcome = idempotencyService.begin(key, requestHash);
+        switch (outcome.getType()) {
+            case REPLAY -> {
+                replay(outcome.getRecord(), response);
+                return;
+            }
+            case MISMATCH -> {
+                writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+                return;
+            }
+            case IN_PROGRESS -> {
+                response.setHeader("Retry-After", "1");
+                writeError(request, response, HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+                return;
+            }
+            case PROCEED -> {
+                // Handled below
+            }
+        }
+        
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean recorded = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), wrapper);
+            
+            byte[] content = wrapper.getContentAsByteArray();
+            int status = wrapper.getStatus();
+            if (!request.isAsyncStarted() && isRecorded(status) && content.length <= maxResponseBytes) {
+                idempotencyService.complete(key, requestHash, status, wrapper.getContentType(), content);
+                recorded = true;
+            } else if (content.length > maxResponseBytes) {
+                log.warn("Response to {} {} is too large to record for {}", request.getMethod(),
+                    request.getRequestURI(), HEADER);
+            }
+        } finally {
+            if (!recorded) {
+                idempotencyService.abandon(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+    
+    private static boolean isRecorded(int status) {
+        return status >= 200 && status < 500 && !NOT_RECORDED.contains(status);
+    }
+    
+    private void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.getStatusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        byte[] content = record.getResponseBody() != null ? record.getResponseBody() : new byte[0];
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+    
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                            String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+            new ErrorResponse(status.value(), status.getReasonPhrase(), message, request.getRequestURI()));
+    }
+    
+    /**
+     * Authenticated user, admin caller, or anonymous; set by JwtAuthenticationFilter, which runs first
+     * This filter runs before AdminSecurityInterceptor, so the admin secret is checked here: a wrong one must
+     * not reach responses recorded for the admin.
+     */
+    private String caller(HttpServletRequest request) {
+        Object userId = request.getAttribute("userId");
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        String adminSecret = request.getHeader("X-Admin-Secret");
+        if (adminSecret != null
+                && MessageDigest.isEqual(adminSecretCode, adminSecret.getBytes(StandardCharsets.UTF_8))) {
+            return "admin";
+        }
+        return "anonymous";
+    }
+    
+    private static String requestHash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" +
+                (request.getQueryString() != null ? request.getQueryString() : "") + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Request whose body was already read, served again from memory
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+                
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Asynchronous reads are not supported");
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+        
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -14,6 +14,8 @@ public interface HospitalProfileRepository extends JpaRepository<HospitalProfile
     
     boolean existsByOwnerId(UUID ownerId);
     
+    boolean existsByIdAndOwnerId(Long id, UUID ownerId);
+    
     Optional<HospitalProfile> findByName(String name);
 }
 
@@ -0,0 +1,20 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.entity.OrderEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+    
+    List<OrderEvent> findByOrderIdOrderByIdAsc(UUID orderId);
+    
+    List<OrderEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+    
+    List<OrderEvent> findByCreatedAtGreaterThanEqualOrderByIdAsc(LocalDateTime since, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.kelox.backend.repository;
+
+/**
+ * Row of a delta sync lookup: a product changed after some sequence
+ */
+public interface ProductChangeKey {
+    
+    Long getId();
+    
+    Long getSequence();
+    
+    Boolean getRemoved();  // Unlisted or deleted
+}
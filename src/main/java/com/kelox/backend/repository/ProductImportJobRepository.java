@@ -0,0 +1,34 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.entity.ProductImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, UUID> {
+    
+    Optional<ProductImportJob> findByIdAndHospitalId(UUID id, Long hospitalId);
+    
+    List<ProductImportJob> findTop20ByHospitalIdOrderByCreatedAtDesc(Long hospitalId);
+    
+    /**
+     * Fail unfinished jobs that stopped reporting progress, e.g. because their instance was restarted
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductImportJob j SET j.status = com.kelox.backend.enums.ImportJobStatus.FAILED, " +
+           "j.errorMessage = :message, j.finishedAt = :now, j.updatedAt = :now " +
+           "WHERE j.status IN (com.kelox.backend.enums.ImportJobStatus.QUEUED, " +
+           "com.kelox.backend.enums.ImportJobStatus.RUNNING) AND j.updatedAt < :staleBefore")
+    int failStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now,
+                  @Param("message") String message);
+}
@@ -0,0 +1,34 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.entity.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read-only product queries that select straight into DTOs
+ * Each call is a single statement joining the seller - no entities are hydrated or managed,
+ * so mapping never triggers lazy loads. Specifications must not fetch associations.
+ */
+public interface ProductProjectionRepository {
+    
+    /**
+     * Select matching products as responses; limit is optional
+     */
+    List<ProductResponse> findResponses(Specification<Product> spec, Sort sort, Integer limit);
+    
+    /**
+     * Stream matching products as responses with a forward-only cursor, fetchSize rows per round trip
+     * Must be consumed inside a transaction and closed by the caller
+     */
+    Stream<ProductResponse> streamResponses(Specification<Product> spec, Sort sort, int fetchSize);
+    
+    /**
+     * Select matching products as catalog entries for the in-memory catalog
+     */
+    List<CatalogEntry> findCatalogEntries(Specification<Product> spec);
+}
@@ -0,0 +1,93 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.entity.HospitalProfile;
+import com.kelox.backend.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Criteria implementation of {@link ProductProjectionRepository} using constructor expressions
+ * ProductResponse and CatalogEntry share the same constructor shape, so both use one select list.
+ */
+public class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<ProductResponse> findResponses(Specification<Product> spec, Sort sort, Integer limit) {
+        return select(ProductResponse.class, spec, sort, limit);
+    }
+    
+    @Override
+    public Stream<ProductResponse> streamResponses(Specification<Product> spec, Sort sort, int fetchSize) {
+        return query(ProductResponse.class, spec, sort)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(AvailableHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+    
+    @Override
+    public List<CatalogEntry> findCatalogEntries(Specification<Product> spec) {
+        return select(CatalogEntry.class, spec, Sort.unsorted(), null);
+    }
+    
+    private <T> List<T> select(Class<T> type, Specification<Product> spec, Sort sort, Integer limit) {
+        TypedQuery<T> typedQuery = query(type, spec, sort);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+    
+    private <T> TypedQuery<T> query(Class<T> type, Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, HospitalProfile> seller = product.join("seller");
+        Expression<Integer> unreserved = cb.diff(product.get("quantity"), product.<Integer>get("reservedQuantity"));
+        
+        query.select(cb.construct(type,
+            product.get("id"),
+            product.get("name"),
+            product.get("manufacturer"),
+            product.get("code"),
+            product.get("lotNumber"),
+            product.get("expiryDate"),
+            product.get("description"),
+            product.get("price"),
+            product.get("quantity"),
+            cb.<Integer>selectCase().when(cb.gt(unreserved, 0), unreserved).otherwise(0),
+            product.get("unit"),
+            seller.get("id"),
+            seller.get("name")));
+        
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(product, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, product, cb));
+        }
+        
+        return entityManager.createQuery(query);
+    }
+}
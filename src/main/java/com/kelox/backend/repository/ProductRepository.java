@@ -1,20 +1,119 @@
 package com.kelox.backend.repository;
 
+import com.kelox.backend.catalog.ExpiringProduct;
+import com.kelox.backend.dto.ProductResponse;
 import com.kelox.backend.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductProjectionRepository, ProductUpsertRepository, ProductStockRepository {
     
-    List<Product> findBySellerIdOrderByExpiryDateAsc(Long sellerId);
+    /**
+     * Stored sync hashes of a seller's lots that are managed by inventory sync
+     */
+    @Query("SELECT new com.kelox.backend.repository.ProductSyncState(p.code, p.lotNumber, p.syncHash) " +
+           "FROM Product p WHERE p.seller.id = :sellerId AND p.syncHash IS NOT NULL")
+    List<ProductSyncState> findSyncStates(@Param("sellerId") Long sellerId);
+    
+    /**
+     * All products of one seller as responses, selected with the seller name in a single statement
+     */
+    @Query("SELECT new com.kelox.backend.dto.ProductResponse(" +
+           "p.id, p.name, p.manufacturer, p.code, p.lotNumber, p.expiryDate, p.description, " +
+           "p.price, p.quantity, " +
+           "CASE WHEN p.quantity > p.reservedQuantity THEN p.quantity - p.reservedQuantity ELSE 0 END, " +
+           "p.unit, s.id, s.name) " +
+           "FROM Product p JOIN p.seller s " +
+           "WHERE s.id = :sellerId " +
+           "ORDER BY p.expiryDate ASC, p.id ASC")
+    List<ProductResponse> findResponsesBySellerId(@Param("sellerId") Long sellerId);
     
     List<Product> findByCodeAndLotNumber(String code, String lotNumber);
     
+    @EntityGraph(attributePaths = "seller")
+    List<Product> findWithSellerByIdIn(Collection<Long> ids);
+    
     boolean existsByCodeAndLotNumberAndSellerId(String code, String lotNumber, Long sellerId);
     
-    java.util.Optional<Product> findByCodeAndLotNumberAndSellerId(String code, String lotNumber, Long sellerId);
+    /**
+     * Full-text search using the GIN-indexed search_vector column
+     * Ordered by relevance, then soonest expiry, then id for a stable order
+     */
+    @Query(value = "SELECT p.id FROM products p, websearch_to_tsquery('simple', :query) q " +
+                   "WHERE p.search_vector @@ q AND p.listed " +
+                   "ORDER BY ts_rank(p.search_vector, q) DESC, p.expiry_date ASC, p.id ASC",
+           nativeQuery = true)
+    Slice<Long> searchIds(@Param("query") String query, Pageable pageable);
+    
+    /**
+     * Listed products whose code or lot number is similar to the text, most similar first
+     * The % operator applies pg_trgm's similarity threshold (0.3 by default) through the trigram GIN indexes
+     */
+    @Query(value = "SELECT p.id AS id, " +
+                   "GREATEST(similarity(p.code, :text), similarity(p.lot_number, :text)) AS score, " +
+                   "CASE WHEN similarity(p.code, :text) >= similarity(p.lot_number, :text) " +
+                   "THEN 'CODE' ELSE 'LOT_NUMBER' END AS matchedField " +
+                   "FROM products p " +
+                   "WHERE p.listed AND (p.code % :text OR p.lot_number % :text) " +
+                   "ORDER BY score DESC, p.id ASC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<ProductSimilarity> findSimilarByCodeOrLotNumber(@Param("text") String text, @Param("limit") int limit);
+    
+    /**
+     * Products and tombstones changed after (since, afterId) in (sequence, id) order, below the watermark
+     */
+    @Query(value = "SELECT c.id AS id, c.seq AS sequence, c.removed AS removed FROM (" +
+                   "SELECT p.id, p.updated_seq AS seq, NOT p.listed AS removed FROM products p " +
+                   "WHERE (p.updated_seq, p.id) > (:since, :afterId) AND p.updated_seq < :watermark " +
+                   "UNION ALL " +
+                   "SELECT t.product_id, t.updated_seq, TRUE FROM product_tombstones t " +
+                   "WHERE (t.updated_seq, t.product_id) > (:since, :afterId) AND t.updated_seq < :watermark" +
+                   ") c ORDER BY c.seq, c.id LIMIT :limit",
+           nativeQuery = true)
+    List<ProductChangeKey> findChangesSince(@Param("since") long since, @Param("afterId") long afterId,
+                                            @Param("watermark") long watermark, @Param("limit") int limit);
+    
+    /**
+     * Oldest transaction id still running; every change below it is committed (or rolled back) and visible
+     */
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", nativeQuery = true)
+    long findChangeWatermark();
+    
+    /**
+     * Listed products expiring up to the given time, for the expiry scheduler
+     */
+    @Query("SELECT new com.kelox.backend.catalog.ExpiringProduct(p.id, p.seller.id, p.expiryDate) " +
+           "FROM Product p WHERE p.listed = true AND p.expiryDate <= :until")
+    List<ExpiringProduct> findListedExpiringBefore(@Param("until") LocalDateTime until);
+    
+    /**
+     * Expiry of the given products if they are still listed
+     */
+    @Query("SELECT new com.kelox.backend.catalog.ExpiringProduct(p.id, p.seller.id, p.expiryDate) " +
+           "FROM Product p WHERE p.listed = true AND p.id IN :productIds")
+    List<ExpiringProduct> findListedExpiries(@Param("productIds") Collection<Long> productIds);
+    
+    /**
+     * Unlist the given products if they have expired by now
+     * Re-checks the expiry so a lot whose date was just extended stays listed
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Product p SET p.listed = false " +
+           "WHERE p.id IN :productIds AND p.listed = true AND p.expiryDate <= :now")
+    int delistExpired(@Param("productIds") Collection<Long> productIds, @Param("now") LocalDateTime now);
 }
 
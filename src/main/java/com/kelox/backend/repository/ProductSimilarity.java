@@ -0,0 +1,13 @@
+package com.kelox.backend.repository;
+
+/**
+ * Row of a trigram similarity lookup
+ */
+public interface ProductSimilarity {
+    
+    Long getId();
+    
+    Double getScore();
+    
+    String getMatchedField();  // CODE or LOT_NUMBER
+}
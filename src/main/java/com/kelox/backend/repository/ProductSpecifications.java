@@ -0,0 +1,98 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.catalog.CatalogFilter;
+import com.kelox.backend.entity.Product;
+import com.kelox.backend.util.ProductCursor;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reusable query fragments for product listings
+ */
+public final class ProductSpecifications {
+    
+    private ProductSpecifications() {
+    }
+    
+    public static Specification<Product> sellerIs(Long sellerId) {
+        return (root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId);
+    }
+    
+    /**
+     * Only products visible on the marketplace; matches the partial listing indexes
+     */
+    public static Specification<Product> listed() {
+        return (root, query, cb) -> cb.isTrue(root.get("listed"));
+    }
+    
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, cb) -> root.get("id").in(productIds);
+    }
+    
+    public static Specification<Product> codeIn(Collection<String> codes) {
+        return (root, query, cb) -> root.get("code").in(codes);
+    }
+    
+    /**
+     * Listing filter; mirrors CatalogFilter#test so database and snapshot pages agree
+     */
+    public static Specification<Product> matches(CatalogFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!filter.getManufacturers().isEmpty()) {
+                predicates.add(cb.lower(cb.trim(root.get("manufacturer"))).in(filter.getManufacturers()));
+            }
+            if (!filter.getUnits().isEmpty()) {
+                predicates.add(root.get("unit").in(filter.getUnits()));
+            }
+            if (!filter.getSellers().isEmpty()) {
+                predicates.add(root.get("seller").get("id").in(filter.getSellers()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getExpiresBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("expiryDate"), filter.getExpiresBefore()));
+            }
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    /**
+     * Keyset predicate: rows strictly after the cursor in (sort key, id) order
+     */
+    public static Specification<Product> after(ProductCursor cursor) {
+        return (root, query, cb) -> {
+            boolean ascending = cursor.getDirection() == Sort.Direction.ASC;
+            Expression<Long> id = root.get("id");
+            var idAfter = ascending ? cb.greaterThan(id, cursor.getLastId()) : cb.lessThan(id, cursor.getLastId());
+            
+            return switch (cursor.getSort()) {
+                case ID -> idAfter;
+                case EXPIRY_DATE -> {
+                    Expression<java.time.LocalDateTime> key = root.get("expiryDate");
+                    var keyAfter = ascending
+                        ? cb.greaterThan(key, cursor.getExpiryDate())
+                        : cb.lessThan(key, cursor.getExpiryDate());
+                    yield cb.or(keyAfter, cb.and(cb.equal(key, cursor.getExpiryDate()), idAfter));
+                }
+                case PRICE -> {
+                    Expression<Float> key = root.get("price");
+                    var keyAfter = ascending
+                        ? cb.greaterThan(key, cursor.getPrice())
+                        : cb.lessThan(key, cursor.getPrice());
+                    yield cb.or(keyAfter, cb.and(cb.equal(key, cursor.getPrice()), idAfter));
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.kelox.backend.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Atomic stock decrements that cannot lose concurrent updates
+ */
+public interface ProductStockRepository {
+    
+    /**
+     * Take units out of stock with one conditional update per product, sent as a single batch in ascending ID
+     * order so concurrent payments lock product rows in the same order
+     * Only available units (quantity - reserved_quantity) can be taken, so release the order's own holds first.
+     * @return IDs of the products that had fewer available units than requested; the others are decremented, so
+     *         the caller must roll back when this is not empty
+     */
+    List<Long> subtractQuantities(Map<Long, Integer> quantitiesByProduct);
+}
@@ -0,0 +1,45 @@
+package com.kelox.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC implementation of {@link ProductStockRepository}
+ */
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    
+    // Units other buyers hold stay untouched; the paying order's own holds are released before this runs
+    private static final String SUBTRACT_QUANTITY =
+        "UPDATE products SET quantity = quantity - ?, version = version + 1 " +
+        "WHERE id = ? AND quantity - reserved_quantity >= ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public List<Long> subtractQuantities(Map<Long, Integer> quantitiesByProduct) {
+        List<Long> productIds = new ArrayList<>(new TreeMap<>(quantitiesByProduct).keySet());
+        List<Object[]> args = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            int quantity = quantitiesByProduct.get(productId);
+            args.add(new Object[]{quantity, productId, quantity});
+        }
+        
+        // Each statement re-checks the row it locked, so the count is 0 exactly when stock ran short
+        int[] updated = jdbcTemplate.batchUpdate(SUBTRACT_QUANTITY, args);
+        List<Long> shortProductIds = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                shortProductIds.add(productIds.get(i));
+            }
+        }
+        return shortProductIds;
+    }
+}
@@ -0,0 +1,16 @@
+package com.kelox.backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sync hash stored for one of a seller's lots
+ */
+@Getter
+@AllArgsConstructor
+public class ProductSyncState {
+    
+    private final String code;
+    private final String lotNumber;
+    private final String syncHash;
+}
@@ -0,0 +1,29 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.dto.AddProductRequest;
+import com.kelox.backend.dto.ProductLotDto;
+
+import java.util.List;
+
+/**
+ * Set-based stock ingestion on the (seller_hospital_id, code, lot_number) unique constraint
+ * Lines must be unique by code and lot number. Existing lots keep their price; every other field is replaced.
+ * Results are returned in line order.
+ */
+public interface ProductUpsertRepository {
+    
+    /**
+     * Insert new lots and add to the quantity of existing ones, a chunk of rows per statement
+     */
+    List<ProductUpsertResult> upsertForSeller(Long sellerId, List<AddProductRequest> lines);
+    
+    /**
+     * Insert new lots and overwrite the quantity of existing ones, recording each line's inventory sync hash
+     */
+    List<ProductUpsertResult> replaceForSeller(Long sellerId, List<AddProductRequest> lines, List<String> syncHashes);
+    
+    /**
+     * Zero out and unlist the given lots and forget their sync hash; returns the ids of the lots that existed
+     */
+    List<Long> clearForSeller(Long sellerId, List<ProductLotDto> lots);
+}
@@ -0,0 +1,137 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.dto.AddProductRequest;
+import com.kelox.backend.dto.ProductLotDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link ProductUpsertRepository}
+ * Products use IDENTITY keys, which Hibernate cannot batch, so uploads go through multi-row
+ * INSERT ... ON CONFLICT DO UPDATE statements instead of a select and save per line.
+ */
+public class ProductUpsertRepositoryImpl implements ProductUpsertRepository {
+    
+    // 12 parameters per row keeps a chunk far below the 65535 bind parameter limit of the driver
+    static final int ROWS_PER_STATEMENT = 500;
+    
+    private static final String INSERT =
+        "INSERT INTO products (name, manufacturer, code, lot_number, expiry_date, description, price, quantity, " +
+        "unit, seller_hospital_id, listed, sync_hash) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ON_CONFLICT =
+        " ON CONFLICT (seller_hospital_id, code, lot_number) DO UPDATE SET ";
+    private static final String UPDATE_FIELDS =
+        "name = EXCLUDED.name, " +
+        "manufacturer = EXCLUDED.manufacturer, " +
+        "expiry_date = EXCLUDED.expiry_date, " +
+        "description = EXCLUDED.description, " +
+        "unit = EXCLUDED.unit, " +
+        "listed = EXCLUDED.listed, " +
+        "version = products.version + 1 " +
+        // xmax is 0 only for rows this statement inserted
+        "RETURNING id, code, lot_number, (xmax = 0) AS inserted";
+    // Writes outside the ERP sync clear the hash, so the next diff asks the ERP for the lot again
+    private static final String ADD_QUANTITY =
+        "quantity = products.quantity + EXCLUDED.quantity, sync_hash = NULL, ";
+    private static final String SET_QUANTITY =
+        "quantity = EXCLUDED.quantity, sync_hash = EXCLUDED.sync_hash, ";
+    
+    private static final String CLEAR =
+        "UPDATE products p SET quantity = 0, listed = FALSE, sync_hash = NULL, version = p.version + 1 " +
+        "FROM (VALUES %s) AS v(code, lot_number) " +
+        "WHERE p.seller_hospital_id = ? AND p.code = v.code AND p.lot_number = v.lot_number " +
+        "RETURNING p.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ProductUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public List<ProductUpsertResult> upsertForSeller(Long sellerId, List<AddProductRequest> lines) {
+        return upsert(sellerId, lines, null, ADD_QUANTITY);
+    }
+    
+    @Override
+    public List<ProductUpsertResult> replaceForSeller(Long sellerId, List<AddProductRequest> lines,
+                                                      List<String> syncHashes) {
+        return upsert(sellerId, lines, syncHashes, SET_QUANTITY);
+    }
+    
+    @Override
+    public List<Long> clearForSeller(Long sellerId, List<ProductLotDto> lots) {
+        List<Long> ids = new ArrayList<>(lots.size());
+        for (int from = 0; from < lots.size(); from += ROWS_PER_STATEMENT) {
+            List<ProductLotDto> chunk = lots.subList(from, Math.min(from + ROWS_PER_STATEMENT, lots.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 2 + 1);
+            for (ProductLotDto lot : chunk) {
+                args.add(lot.getCode());
+                args.add(lot.getLotNumber());
+            }
+            args.add(sellerId);
+            
+            String values = String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"));
+            ids.addAll(jdbcTemplate.queryForList(String.format(CLEAR, values), Long.class, args.toArray()));
+        }
+        return ids;
+    }
+    
+    private List<ProductUpsertResult> upsert(Long sellerId, List<AddProductRequest> lines, List<String> syncHashes,
+                                             String quantityUpdate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductUpsertResult> results = new ArrayList<>(lines.size());
+        
+        for (int from = 0; from < lines.size(); from += ROWS_PER_STATEMENT) {
+            int to = Math.min(from + ROWS_PER_STATEMENT, lines.size());
+            List<AddProductRequest> chunk = lines.subList(from, to);
+            
+            StringBuilder sql = new StringBuilder(INSERT);
+            List<Object> args = new ArrayList<>(chunk.size() * 12);
+            for (int i = from; i < to; i++) {
+                AddProductRequest line = lines.get(i);
+                if (i > from) {
+                    sql.append(", ");
+                }
+                sql.append(ROW);
+                args.add(line.getName());
+                args.add(line.getManufacturer());
+                args.add(line.getCode());
+                args.add(line.getLotNumber());
+                args.add(Timestamp.valueOf(line.getExpiryDate()));
+                args.add(line.getDescription());
+                args.add(line.getPrice());
+                args.add(line.getQuantity());
+                args.add(line.getUnit().name());
+                args.add(sellerId);
+                args.add(line.getExpiryDate().isAfter(now));
+                args.add(syncHashes != null ? syncHashes.get(i) : null);
+            }
+            sql.append(ON_CONFLICT).append(quantityUpdate).append(UPDATE_FIELDS);
+            
+            // RETURNING order is not guaranteed, so match rows back to lines by their key
+            Map<String, ProductUpsertResult> byKey = new HashMap<>(chunk.size() * 2);
+            jdbcTemplate.query(sql.toString(), rs -> {
+                byKey.put(key(rs.getString("code"), rs.getString("lot_number")),
+                    new ProductUpsertResult(rs.getLong("id"), rs.getBoolean("inserted")));
+            }, args.toArray());
+            
+            for (AddProductRequest line : chunk) {
+                results.add(byKey.get(key(line.getCode(), line.getLotNumber())));
+            }
+        }
+        return results;
+    }
+    
+    private static String key(String code, String lotNumber) {
+        return code + '\u0000' + lotNumber;
+    }
+}
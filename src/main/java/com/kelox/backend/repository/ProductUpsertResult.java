@@ -0,0 +1,17 @@
+package com.kelox.backend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of upserting one stock line
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductUpsertResult {
+    
+    private Long id;
+    private boolean inserted;  // False when the lot already existed and its quantity was increased
+}
@@ -1,6 +1,7 @@
 package com.kelox.backend.repository;
 
 import com.kelox.backend.entity.ShoppingCart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,5 +14,12 @@ public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, UUID
     Optional<ShoppingCart> findByHospitalId(Long hospitalId);
     
     boolean existsByHospitalId(Long hospitalId);
+    
+    /**
+     * Cart with everything ShoppingCartResponse reads - items, their products and the products' sellers - in one
+     * statement. As a fetch graph, eager associations outside it (such as the hospitals' owners) are not loaded.
+     */
+    @EntityGraph(attributePaths = {"hospital", "items", "items.product", "items.product.seller"})
+    Optional<ShoppingCart> findWithItemsByHospitalId(Long hospitalId);
 }
 
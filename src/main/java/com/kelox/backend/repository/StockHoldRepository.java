@@ -0,0 +1,56 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.entity.StockReservation;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stock reservation bookkeeping in batched statements
+ * products.reserved_quantity must equal the sum of the product's reservations, so every method that adds or
+ * deletes reservations is paired with {@link #addReserved} or {@link #subtractReserved} in the same transaction.
+ * Product rows are always locked in ascending ID order.
+ */
+public interface StockHoldRepository {
+    
+    /**
+     * Reserve units of listed products where enough are available
+     * @return IDs of the products that did not have enough available; the others are reserved
+     */
+    List<Long> addReserved(Map<Long, Integer> quantitiesByProduct);
+    
+    void subtractReserved(Map<Long, Integer> quantitiesByProduct);
+    
+    /**
+     * Held quantity per cart item, locking the holds so the expiry sweep skips them
+     */
+    Map<Long, Integer> lockCartHolds(Collection<Long> shopItemIds);
+    
+    /**
+     * Insert or replace the holds of cart items (shopItemId, productId, quantity, expiresAt)
+     */
+    void saveCartHolds(List<StockReservation> holds);
+    
+    /**
+     * Move cart holds to an order with a new expiry
+     */
+    int convertCartHolds(Collection<Long> shopItemIds, UUID orderId, LocalDateTime expiresAt);
+    
+    /**
+     * Delete up to limit expired holds, skipping holds locked by other transactions
+     * @return the deleted holds' product IDs and quantities
+     */
+    List<StockReservation> deleteExpired(LocalDateTime now, int limit);
+    
+    List<StockReservation> deleteByShopItemIds(Collection<Long> shopItemIds);
+    
+    List<StockReservation> deleteByOrder(UUID orderId);
+    
+    /**
+     * Seller hospital ID per product, for publishing catalog changes of products whose holds changed
+     */
+    Map<Long, Long> findSellerIds(Collection<Long> productIds);
+}
@@ -0,0 +1,161 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.entity.StockReservation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link StockHoldRepository}
+ * Counter updates are sent as one JDBC batch, sorted by product ID so that concurrent reservations lock
+ * product rows in the same order and cannot deadlock.
+ */
+public class StockHoldRepositoryImpl implements StockHoldRepository {
+    
+    private static final String ADD_RESERVED =
+        "UPDATE products SET reserved_quantity = reserved_quantity + ? " +
+        "WHERE id = ? AND listed = TRUE AND quantity - reserved_quantity >= ?";
+    private static final String SUBTRACT_RESERVED =
+        "UPDATE products SET reserved_quantity = GREATEST(reserved_quantity - ?, 0) WHERE id = ?";
+    private static final String LOCK_CART_HOLDS =
+        "SELECT shop_item_id, quantity FROM stock_reservations WHERE shop_item_id IN (%s) FOR UPDATE";
+    private static final String SAVE_CART_HOLD =
+        "INSERT INTO stock_reservations (product_id, shop_item_id, quantity, expires_at, created_at) " +
+        "VALUES (?, ?, ?, ?, ?) " +
+        "ON CONFLICT (shop_item_id) DO UPDATE SET quantity = EXCLUDED.quantity, expires_at = EXCLUDED.expires_at";
+    private static final String CONVERT_CART_HOLDS =
+        "UPDATE stock_reservations SET shop_item_id = NULL, order_id = ?, expires_at = ? WHERE shop_item_id IN (%s)";
+    private static final String DELETE_EXPIRED =
+        "DELETE FROM stock_reservations WHERE id IN (" +
+        "SELECT id FROM stock_reservations WHERE expires_at < ? ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING product_id, quantity";
+    private static final String DELETE_BY_SHOP_ITEMS =
+        "DELETE FROM stock_reservations WHERE shop_item_id IN (%s) RETURNING product_id, quantity";
+    private static final String DELETE_BY_ORDER =
+        "DELETE FROM stock_reservations WHERE order_id = ? RETURNING product_id, quantity";
+    private static final String FIND_SELLER_IDS =
+        "SELECT id, seller_hospital_id FROM products WHERE id IN (%s)";
+    
+    private static final RowMapper<StockReservation> RELEASED = (rs, rowNum) -> {
+        StockReservation hold = new StockReservation();
+        hold.setProductId(rs.getLong("product_id"));
+        hold.setQuantity(rs.getInt("quantity"));
+        return hold;
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public StockHoldRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public List<Long> addReserved(Map<Long, Integer> quantitiesByProduct) {
+        List<Long> productIds = new ArrayList<>(new TreeMap<>(quantitiesByProduct).keySet());
+        List<Object[]> args = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            int quantity = quantitiesByProduct.get(productId);
+            args.add(new Object[]{quantity, productId, quantity});
+        }
+        
+        int[] updated = jdbcTemplate.batchUpdate(ADD_RESERVED, args);
+        List<Long> unavailable = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                unavailable.add(productIds.get(i));
+            }
+        }
+        return unavailable;
+    }
+    
+    @Override
+    public void subtractReserved(Map<Long, Integer> quantitiesByProduct) {
+        List<Object[]> args = new ArrayList<>(quantitiesByProduct.size());
+        new TreeMap<>(quantitiesByProduct).forEach((productId, quantity) -> args.add(new Object[]{quantity, productId}));
+        jdbcTemplate.batchUpdate(SUBTRACT_RESERVED, args);
+    }
+    
+    @Override
+    public Map<Long, Integer> lockCartHolds(Collection<Long> shopItemIds) {
+        Map<Long, Integer> held = new HashMap<>();
+        if (shopItemIds.isEmpty()) {
+            return held;
+        }
+        jdbcTemplate.query(String.format(LOCK_CART_HOLDS, placeholders(shopItemIds.size())),
+            rs -> {
+                held.put(rs.getLong("shop_item_id"), rs.getInt("quantity"));
+            },
+            shopItemIds.toArray());
+        return held;
+    }
+    
+    @Override
+    public void saveCartHolds(List<StockReservation> holds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(holds.size());
+        for (StockReservation hold : holds) {
+            args.add(new Object[]{hold.getProductId(), hold.getShopItemId(), hold.getQuantity(),
+                Timestamp.valueOf(hold.getExpiresAt()), now});
+        }
+        jdbcTemplate.batchUpdate(SAVE_CART_HOLD, args);
+    }
+    
+    @Override
+    public int convertCartHolds(Collection<Long> shopItemIds, UUID orderId, LocalDateTime expiresAt) {
+        if (shopItemIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(shopItemIds.size() + 2);
+        args.add(orderId);
+        args.add(Timestamp.valueOf(expiresAt));
+        args.addAll(shopItemIds);
+        return jdbcTemplate.update(String.format(CONVERT_CART_HOLDS, placeholders(shopItemIds.size())), args.toArray());
+    }
+    
+    @Override
+    public List<StockReservation> deleteExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(DELETE_EXPIRED, RELEASED, Timestamp.valueOf(now), limit);
+    }
+    
+    @Override
+    public List<StockReservation> deleteByShopItemIds(Collection<Long> shopItemIds) {
+        if (shopItemIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(String.format(DELETE_BY_SHOP_ITEMS, placeholders(shopItemIds.size())),
+            RELEASED, shopItemIds.toArray());
+    }
+    
+    @Override
+    public List<StockReservation> deleteByOrder(UUID orderId) {
+        return jdbcTemplate.query(DELETE_BY_ORDER, RELEASED, orderId);
+    }
+    
+    @Override
+    public Map<Long, Long> findSellerIds(Collection<Long> productIds) {
+        Map<Long, Long> sellerIds = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return sellerIds;
+        }
+        jdbcTemplate.query(String.format(FIND_SELLER_IDS, placeholders(productIds.size())),
+            rs -> {
+                sellerIds.put(rs.getLong("id"), rs.getLong("seller_hospital_id"));
+            },
+            productIds.toArray());
+        return sellerIds;
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.kelox.backend.repository;
+
+import com.kelox.backend.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long>, StockHoldRepository {
+    
+    List<StockReservation> findByShopItemIdIn(Collection<Long> shopItemIds);
+}
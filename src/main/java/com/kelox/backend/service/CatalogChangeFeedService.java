@@ -0,0 +1,291 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.dto.CatalogChangeEventDto;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
+import com.kelox.backend.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process fan-out of committed product changes to Server-Sent Events subscribers
+ * Publishing never blocks the committing thread: every subscriber has a bounded queue drained on the feed's
+ * own pool, which has room for one drain per subscriber, so slow clients never hold threads other endpoints
+ * use. A subscriber that falls behind has its queue dropped and receives a single "resync" event instead,
+ * telling the client to reload its mirror. Recent events are kept so a reconnecting client can resume from
+ * Last-Event-ID; if it is too far behind (or the server restarted) it gets a resync as well.
+ */
+@Service
+@Slf4j
+public class CatalogChangeFeedService {
+    
+    static final int SUBSCRIBER_BUFFER = 256;
+    static final int REPLAY_BUFFER = 1024;
+    static final int MAX_SUBSCRIBERS = 1000;
+    static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    
+    private final CatalogLoader catalogLoader;
+    private final Counter resyncs;
+    
+    private ThreadPoolTaskExecutor executor;
+    
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<FeedEvent> recent = new ArrayDeque<>();
+    private long sequence;
+    
+    public CatalogChangeFeedService(CatalogLoader catalogLoader, MeterRegistry meterRegistry) {
+        this.catalogLoader = catalogLoader;
+        this.resyncs = Counter.builder("kelox.catalog.feed.resyncs")
+            .description("Change feed subscribers told to resync because they fell behind or resumed too late")
+            .register(meterRegistry);
+        Gauge.builder("kelox.catalog.feed.subscribers", subscribers, Set::size)
+            .description("Open catalog change feed connections")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void startExecutor() {
+        // A subscriber has at most one drain in flight, so the pool never needs more threads than subscribers;
+        // threads only exist while a drain is writing and are released after a minute idle
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(MAX_SUBSCRIBERS);
+        executor.setQueueCapacity(0);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("catalog-feed-");
+        executor.initialize();
+    }
+    
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+    
+    /**
+     * Open a feed connection, replaying anything after lastEventId when it is still buffered
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) {
+            throw new BusinessException("Too many change feed subscribers, try again later");
+        }
+        
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        
+        // Under the publish lock, so nothing is published between the replay and going live
+        synchronized (recent) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<FeedEvent> replay = replayAfter(lastEventId);
+                if (replay == null) {
+                    resyncs.increment();
+                    subscriber.offer(resyncEvent());
+                } else {
+                    replay.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        log.info("Catalog change feed subscriber connected ({} open)", subscribers.size());
+        return emitter;
+    }
+    
+    /**
+     * Publish committed changes with the current product state
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductCatalogChangedEvent event) {
+        if (event.getChanges().isEmpty()) {
+            return;
+        }
+        
+        Map<Long, CatalogEntry> current;
+        try {
+            current = catalogLoader.loadByIds(event.getProductIds()).stream()
+                .collect(Collectors.toMap(CatalogEntry::getId, Function.identity()));
+        } catch (RuntimeException e) {
+            // Subscribers can't be given correct data; make them reload instead of silently missing changes
+            log.error("Failed to load changed products for the change feed: {}", e.getMessage(), e);
+            synchronized (recent) {
+                // Burn the sequence numbers too, so clients resuming from before this point resync as well
+                sequence += event.getChanges().size();
+                recent.clear();
+                subscribers.forEach(subscriber -> subscriber.offer(resyncEvent()));
+                resyncs.increment(subscribers.size());
+            }
+            return;
+        }
+        
+        synchronized (recent) {
+            for (ProductChange change : event.getChanges()) {
+                CatalogEntry entry = current.get(change.getProductId());
+                long eventSequence = ++sequence;
+                FeedEvent feedEvent = new FeedEvent(bootId + "-" + eventSequence, "product", new CatalogChangeEventDto(
+                    eventSequence, change.getType(), change.getProductId(), change.getSellerId(),
+                    entry != null ? entry.toResponse() : null));
+                
+                recent.addLast(feedEvent);
+                if (recent.size() > REPLAY_BUFFER) {
+                    recent.removeFirst();
+                }
+                subscribers.forEach(subscriber -> subscriber.offer(feedEvent));
+            }
+        }
+    }
+    
+    /**
+     * Keep idle connections open through proxies and notice clients that went away
+     */
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+    
+    /**
+     * Buffered events after the given id, or null when the client must resync
+     */
+    private List<FeedEvent> replayAfter(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(bootId)) {
+            return null;
+        }
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastSequence > sequence) {
+            return null;
+        }
+        long oldestBuffered = recent.isEmpty() ? sequence + 1 : recent.peekFirst().payloadSequence();
+        if (lastSequence + 1 < oldestBuffered) {
+            return null;
+        }
+        
+        List<FeedEvent> replay = new ArrayList<>();
+        for (FeedEvent event : recent) {
+            if (event.payloadSequence() > lastSequence) {
+                replay.add(event);
+            }
+        }
+        return replay;
+    }
+    
+    private FeedEvent resyncEvent() {
+        return new FeedEvent(bootId + "-" + sequence, "resync", Map.of("sequence", sequence));
+    }
+    
+    private static final class FeedEvent {
+        private final String id;
+        private final String name;
+        private final Object data;
+        
+        private FeedEvent(String id, String name, Object data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+        
+        private long payloadSequence() {
+            return data instanceof CatalogChangeEventDto change ? change.getSequence() : -1;
+        }
+    }
+    
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        private void offer(FeedEvent event) {
+            if (!queue.offer(event)) {
+                // Too slow: drop the backlog, the client reloads on resync anyway
+                queue.clear();
+                queue.offer(resyncEvent());
+                resyncs.increment();
+            }
+            scheduleDrain();
+        }
+        
+        private void heartbeat() {
+            if (queue.isEmpty() && queue.offer(SseEmitter.event().comment("keep-alive"))) {
+                scheduleDrain();
+            }
+        }
+        
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (TaskRejectedException e) {
+                    // Shutting down, or briefly over the subscriber cap; the client reconnects with Last-Event-ID
+                    draining.set(false);
+                    close(e);
+                }
+            }
+        }
+        
+        private void close(Exception cause) {
+            subscribers.remove(this);
+            queue.clear();
+            emitter.completeWithError(cause);
+        }
+        
+        private void drain() {
+            try {
+                Object next;
+                while ((next = queue.poll()) != null) {
+                    if (next instanceof FeedEvent event) {
+                        emitter.send(SseEmitter.event().id(event.id).name(event.name).data(event.data));
+                    } else {
+                        emitter.send((SseEmitter.SseEventBuilder) next);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client disconnected or the emitter already completed
+                close(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Something may have been offered between the last poll and releasing the flag
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
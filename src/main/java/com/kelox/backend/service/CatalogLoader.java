@@ -0,0 +1,62 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.entity.HospitalProfile;
+import com.kelox.backend.repository.HospitalProfileRepository;
+import com.kelox.backend.repository.ProductRepository;
+import com.kelox.backend.repository.ProductSpecifications;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Loads detached catalog entries for the in-memory catalog structures
+ * Always runs in its own read-only transaction so it can be called from after-commit listeners.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogLoader {
+    
+    private final ProductRepository productRepository;
+    private final HospitalProfileRepository hospitalProfileRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    /**
+     * Load every listed product with its seller
+     */
+    public List<CatalogEntry> loadAll() {
+        return readOnlyTransaction().execute(status ->
+            productRepository.findCatalogEntries(ProductSpecifications.listed()));
+    }
+    
+    /**
+     * Load the given products with their sellers; ids that no longer exist or are unlisted are simply absent
+     */
+    public List<CatalogEntry> loadByIds(Collection<Long> productIds) {
+        return readOnlyTransaction().execute(status ->
+            productRepository.findCatalogEntries(ProductSpecifications.listed()
+                .and(ProductSpecifications.idIn(productIds))));
+    }
+    
+    /**
+     * Load id to name for every hospital
+     */
+    public Map<Long, String> loadHospitalNames() {
+        return readOnlyTransaction().execute(status ->
+            hospitalProfileRepository.findAll().stream()
+                .collect(Collectors.toMap(HospitalProfile::getId, HospitalProfile::getName)));
+    }
+    
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
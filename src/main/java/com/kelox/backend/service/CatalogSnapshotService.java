@@ -0,0 +1,133 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.catalog.CatalogSnapshot;
+import com.kelox.backend.config.CatalogConfig;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the in-memory marketplace catalog snapshot
+ * Readers grab the current snapshot lock-free; writers build a new one and swap it atomically.
+ * The snapshot is warmed up on startup, patched after every committed product write and fully
+ * rebuilt on a fixed interval to pick up writes made by other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final CatalogConfig catalogConfig;
+    private final CatalogLoader catalogLoader;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("kelox.catalog.snapshot.version", current, ref -> ref.get() == null ? -1 : ref.get().getVersion())
+            .description("Version of the marketplace catalog snapshot currently served")
+            .register(meterRegistry);
+        Gauge.builder("kelox.catalog.snapshot.products", current, ref -> ref.get() == null ? 0 : ref.get().size())
+            .description("Number of products held in the marketplace catalog snapshot")
+            .register(meterRegistry);
+        TimeGauge.builder("kelox.catalog.snapshot.age", current, TimeUnit.MILLISECONDS,
+                ref -> ref.get() == null ? 0 : Duration.between(ref.get().getBuiltAt(), Instant.now()).toMillis())
+            .description("Time since the served catalog snapshot was built or patched")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot, or null when the snapshot is disabled or not warmed up yet
+     * Callers must fall back to the database on null
+     */
+    public CatalogSnapshot current() {
+        return catalogConfig.isSnapshotEnabled() ? current.get() : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (catalogConfig.isSnapshotEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${marketplace.catalog.snapshot.refresh-interval-ms:300000}",
+        initialDelayString = "${marketplace.catalog.snapshot.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        if (catalogConfig.isSnapshotEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the database and swap it in
+     */
+    public synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.build(
+                versionSequence.incrementAndGet(), catalogLoader.loadAll(), catalogLoader.loadHospitalNames());
+            current.set(snapshot);
+            log.info("Catalog snapshot v{} built with {} products in {} ms",
+                snapshot.getVersion(), snapshot.size(), System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot (or the database if there is none)
+            log.error("Failed to rebuild catalog snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Patch the snapshot with products written by a committed transaction
+     * Ordered first so the catalog version is only bumped once the snapshot serves the new data
+     */
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductCatalogChangedEvent event) {
+        if (!catalogConfig.isSnapshotEnabled() || current.get() == null || event.getChanges().isEmpty()) {
+            return;
+        }
+        patch(event.getProductIds());
+    }
+
+    private synchronized void patch(Set<Long> productIds) {
+        try {
+            List<CatalogEntry> upserts = catalogLoader.loadByIds(productIds);
+
+            // Anything requested but no longer in the database was deleted
+            Set<Long> removed = new HashSet<>(productIds);
+            upserts.forEach(entry -> removed.remove(entry.getId()));
+
+            CatalogSnapshot patched = current.get().patch(versionSequence.incrementAndGet(), upserts, removed);
+            current.set(patched);
+            log.debug("Catalog snapshot patched to v{} ({} upserted, {} removed)",
+                patched.getVersion(), upserts.size(), removed.size());
+        } catch (RuntimeException e) {
+            // The periodic rebuild will converge; the snapshot just stays stale until then
+            log.error("Failed to patch catalog snapshot for products {}: {}", productIds, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.config.CatalogConfig;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for the public catalog, used to build ETags without touching the database
+ * A global counter plus one per product and per seller, bumped after every committed product write.
+ * Counters live in memory, so every ETag also carries a boot id (restarts never reuse an old tag) and a
+ * time epoch (writes made on other instances, and time-relative filters, are picked up within one epoch).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogVersionService {
+    
+    private final CatalogConfig catalogConfig;
+    
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> sellerVersions = new ConcurrentHashMap<>();
+    
+    /**
+     * ETag for a marketplace listing; sellerId scopes it to one hospital, null means the whole catalog
+     */
+    public String listingEtag(Long sellerId) {
+        return etag(sellerId == null
+            ? "g" + globalVersion.get()
+            : "s" + sellerId + "." + sellerVersions.getOrDefault(sellerId, 0L));
+    }
+    
+    /**
+     * ETag for a single product
+     */
+    public String productEtag(Long productId) {
+        return etag("p" + productId + "." + productVersions.getOrDefault(productId, 0L));
+    }
+    
+    /**
+     * Version of a single product; only moves for writes committed on this instance
+     */
+    public long productVersion(Long productId) {
+        return productVersions.getOrDefault(productId, 0L);
+    }
+    
+    /**
+     * Global version; changes whenever any product write commits on this instance
+     */
+    public long globalVersion() {
+        return globalVersion.get();
+    }
+    
+    /**
+     * Bump versions once the write is visible
+     * Runs after the in-memory catalog listeners so a new tag is never paired with a stale body
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductCatalogChangedEvent event) {
+        if (event.getChanges().isEmpty()) {
+            return;
+        }
+        // Global first: ProductJsonCache relies on it moving before any product version does
+        globalVersion.incrementAndGet();
+        for (ProductChange change : event.getChanges()) {
+            productVersions.merge(change.getProductId(), 1L, Long::sum);
+            sellerVersions.merge(change.getSellerId(), 1L, Long::sum);
+        }
+        log.debug("Catalog version bumped to {} for {} product changes", globalVersion.get(), event.getChanges().size());
+    }
+    
+    private String etag(String version) {
+        return "\"" + bootId + "-" + currentEpoch() + "-" + version + "\"";
+    }
+    
+    private long currentEpoch() {
+        return System.currentTimeMillis() / catalogConfig.getVersionEpochMs();
+    }
+}
@@ -43,6 +43,7 @@ public class HospitalService {
     private final DeliveryAddressRepository deliveryAddressRepository;
     private final WalletTransactionRepository walletTransactionRepository;
     private final OrderRepository orderRepository;
+    private final OptimisticRetryService optimisticRetryService;
     
     /**
      * Create a new hospital profile without an owner
@@ -401,8 +402,11 @@ public class HospitalService {
      * Admin only
      * Amount can be positive (increase) or negative (decrease)
      */
-    @Transactional
     public HospitalProfileResponse updateBalance(Long hospitalId, Float amount) {
+        return optimisticRetryService.execute("hospital.balance", () -> updateBalanceAttempt(hospitalId, amount));
+    }
+    
+    private HospitalProfileResponse updateBalanceAttempt(Long hospitalId, Float amount) {
         log.info("Admin updating balance for hospital {} by amount {}", hospitalId, amount);
         
         // Find hospital
@@ -441,8 +445,11 @@ public class HospitalService {
      * DEPOSIT: increases balance
      * WITHDRAW: decreases balance
      */
-    @Transactional
     public WalletTransactionResponse createTransaction(Long hospitalId, CreateTransactionRequest request) {
+        return optimisticRetryService.execute("hospital.transaction", () -> createTransactionAttempt(hospitalId, request));
+    }
+    
+    private WalletTransactionResponse createTransactionAttempt(Long hospitalId, CreateTransactionRequest request) {
         log.info("Admin creating {} transaction of {} for hospital {}", 
             request.getType(), request.getAmount(), hospitalId);
         
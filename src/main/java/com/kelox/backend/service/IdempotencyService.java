@@ -0,0 +1,226 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.entity.IdempotencyRecord;
+import com.kelox.backend.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Store of first responses per Idempotency-Key
+ * The database row is the source of truth across instances; completed responses are also kept in a small
+ * in-memory LRU with the same TTL so hot retries skip the database. A duplicate of a request that is still
+ * running on this instance waits on it directly, one running on another instance is polled for.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final int SWEEP_BATCH_SIZE = 1000;
+    
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final long ttlMs;
+    private final long lockMs;
+    private final long waitTimeoutMs;
+    private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, IdempotencyRecord> recent;
+    
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${marketplace.idempotency.ttl-ms:86400000}") long ttlMs,
+                              @Value("${marketplace.idempotency.lock-ms:300000}") long lockMs,
+                              @Value("${marketplace.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+                              @Value("${marketplace.idempotency.cache-max-entries:1000}") int cacheMaxEntries) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.meterRegistry = meterRegistry;
+        this.ttlMs = ttlMs;
+        this.lockMs = lockMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
+    }
+    
+    /**
+     * Claim the key for this request, or find the response to replay
+     * Blocks while a duplicate is in flight, up to the wait timeout.
+     */
+    public Outcome begin(String key, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            IdempotencyRecord cached = cached(key);
+            if (cached != null) {
+                return replay(cached, requestHash);
+            }
+            
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                // Duplicate on this instance: wait for it to finish, then look again
+                try {
+                    running.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    return outcome(Outcome.Type.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    // Never completed exceptionally
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return outcome(Outcome.Type.IN_PROGRESS, null);
+                }
+                continue;
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            boolean claimed = false;
+            IdempotencyRecord stored;
+            try {
+                claimed = idempotencyRecordRepository.claim(key, requestHash, now.plus(lockMs, ChronoUnit.MILLIS),
+                    now, now.plus(ttlMs, ChronoUnit.MILLIS)) == 1;
+                if (claimed) {
+                    // The caller now owns the key until complete or abandon
+                    return outcome(Outcome.Type.PROCEED, null);
+                }
+                stored = idempotencyRecordRepository.findById(key).orElse(null);
+            } finally {
+                if (!claimed) {
+                    finish(key);
+                }
+            }
+            
+            if (stored != null && stored.isCompleted()) {
+                remember(stored);
+                return replay(stored, requestHash);
+            }
+            
+            // In flight on another instance
+            if (System.currentTimeMillis() >= deadline) {
+                return outcome(Outcome.Type.IN_PROGRESS, null);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return outcome(Outcome.Type.IN_PROGRESS, null);
+            }
+        }
+    }
+    
+    /**
+     * Record the response of a claimed key and wake up waiting duplicates
+     */
+    public void complete(String key, String requestHash, int statusCode, String contentType, byte[] body) {
+        try {
+            idempotencyRecordRepository.complete(key, statusCode, contentType, body);
+            LocalDateTime now = LocalDateTime.now();
+            remember(new IdempotencyRecord(key, requestHash, statusCode, contentType, body, null, now,
+                now.plus(ttlMs, ChronoUnit.MILLIS)));
+        } finally {
+            finish(key);
+        }
+    }
+    
+    /**
+     * Forget a claimed key without a response, so that a retry runs the request again
+     */
+    public void abandon(String key) {
+        try {
+            idempotencyRecordRepository.release(key);
+        } finally {
+            finish(key);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${marketplace.idempotency.sweep-interval-ms:600000}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int deleted;
+            int total = 0;
+            do {
+                deleted = idempotencyRecordRepository.deleteExpired(now, SWEEP_BATCH_SIZE);
+                total += deleted;
+            } while (deleted == SWEEP_BATCH_SIZE);
+            if (total > 0) {
+                log.info("Deleted {} expired idempotency keys", total);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to delete expired idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+    
+    private Outcome replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return outcome(Outcome.Type.MISMATCH, record);
+        }
+        return outcome(Outcome.Type.REPLAY, record);
+    }
+    
+    private IdempotencyRecord cached(String key) {
+        synchronized (recent) {
+            IdempotencyRecord record = recent.get(key);
+            if (record != null && record.getExpiresAt().isBefore(LocalDateTime.now())) {
+                recent.remove(key);
+                return null;
+            }
+            return record;
+        }
+    }
+    
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getIdempotencyKey(), record);
+        }
+    }
+    
+    private void finish(String key) {
+        CompletableFuture<Void> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(null);
+        }
+    }
+    
+    private Outcome outcome(Outcome.Type type, IdempotencyRecord record) {
+        outcomes.computeIfAbsent(type.name(), name -> Counter.builder("kelox.idempotency.requests")
+            .tag("outcome", name.toLowerCase())
+            .description("POST requests carrying an Idempotency-Key, by how they were handled")
+            .register(meterRegistry)).increment();
+        return new Outcome(type, record);
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    public static class Outcome {
+        
+        public enum Type {
+            PROCEED,  // First request: run it and record the response
+            REPLAY,  // Completed before: send the recorded response
+            MISMATCH,  // Key reused for a different request
+            IN_PROGRESS  // Still running elsewhere after the wait timeout
+        }
+        
+        private final Type type;
+        private final IdempotencyRecord record;
+    }
+}
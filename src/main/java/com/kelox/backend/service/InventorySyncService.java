@@ -0,0 +1,272 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.dto.AddProductRequest;
+import com.kelox.backend.dto.InventoryDiffResponse;
+import com.kelox.backend.dto.InventoryItemHashDto;
+import com.kelox.backend.dto.InventorySyncApplyRequest;
+import com.kelox.backend.dto.InventorySyncApplyResponse;
+import com.kelox.backend.dto.InventorySyncLineDto;
+import com.kelox.backend.dto.ProductLotDto;
+import com.kelox.backend.enums.ProductChangeType;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
+import com.kelox.backend.exception.BusinessException;
+import com.kelox.backend.exception.ResourceNotFoundException;
+import com.kelox.backend.repository.HospitalProfileRepository;
+import com.kelox.backend.repository.ProductRepository;
+import com.kelox.backend.repository.ProductSyncState;
+import com.kelox.backend.repository.ProductUpsertResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Hash-based inventory sync for hospital ERPs
+ * The ERP keeps a content hash per lot, computed however it likes; the server stores the hash of the line it
+ * last applied. A sync then only transfers and writes what changed:
+ * 1. Bucket hashes: each lot falls into bucket hex(sha256(code + "\n" + lotNumber))[0..2], one of 256. A bucket's
+ *    hash is hex(sha256(concat of code + "\n" + lotNumber + "\n" + hash + "\n")) over its lots ordered by code,
+ *    then lot number (ordinal). Buckets whose hashes match are in sync.
+ * 2. Diff: the ERP sends (code, lotNumber, hash) for the changed buckets and learns which lots to send in full
+ *    and which previously synced lots it no longer lists.
+ * 3. Apply: those lots are upserted with the ERP's quantity (set, not added) and the absent ones zeroed and unlisted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventorySyncService {
+
+    public static final int MAX_SYNC_LINES = 5000;
+    public static final int MAX_HASH_LENGTH = 128;
+
+    private static final Pattern BUCKET = Pattern.compile("[0-9a-f]{2}");
+    private static final Comparator<ProductSyncState> LOT_ORDER =
+        Comparator.comparing(ProductSyncState::getCode).thenComparing(ProductSyncState::getLotNumber);
+
+    private final ProductRepository productRepository;
+    private final HospitalProfileRepository hospitalProfileRepository;
+    private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetryService optimisticRetryService;
+
+    /**
+     * Buckets whose hash differs from the client's, including buckets only one side has
+     */
+    @Transactional(readOnly = true)
+    public List<String> findChangedBuckets(Long hospitalId, Map<String, String> clientBuckets) {
+        requireHospital(hospitalId);
+        Map<String, String> client = clientBuckets == null ? Map.of() : clientBuckets;
+        client.keySet().forEach(InventorySyncService::validateBucket);
+
+        Map<String, String> server = bucketHashes(productRepository.findSyncStates(hospitalId));
+
+        Set<String> changed = new TreeSet<>();
+        for (String bucket : union(server.keySet(), client.keySet())) {
+            String clientHash = client.get(bucket);
+            if (clientHash == null || !clientHash.equalsIgnoreCase(server.getOrDefault(bucket, ""))) {
+                changed.add(bucket);
+            }
+        }
+        log.info("Inventory sync for hospital {}: {} of {} buckets changed", hospitalId, changed.size(), server.size());
+        return new ArrayList<>(changed);
+    }
+
+    /**
+     * Lots to request from the client and previously synced lots it no longer lists, within the given buckets
+     */
+    @Transactional(readOnly = true)
+    public InventoryDiffResponse diff(Long hospitalId, Collection<String> buckets, List<InventoryItemHashDto> items) {
+        requireHospital(hospitalId);
+        if (items == null) {
+            throw new BusinessException("Items are required");
+        }
+        if (items.size() > MAX_SYNC_LINES) {
+            throw new BusinessException("Cannot diff more than " + MAX_SYNC_LINES + " items at once; diff by bucket");
+        }
+        Set<String> scope = null;
+        if (buckets != null) {
+            buckets.forEach(InventorySyncService::validateBucket);
+            scope = new HashSet<>(buckets);
+        }
+
+        Map<String, ProductSyncState> server = new HashMap<>();
+        for (ProductSyncState state : productRepository.findSyncStates(hospitalId)) {
+            if (scope == null || scope.contains(bucketOf(state.getCode(), state.getLotNumber()))) {
+                server.put(key(state.getCode(), state.getLotNumber()), state);
+            }
+        }
+
+        List<ProductLotDto> requested = new ArrayList<>();
+        Set<String> listed = new HashSet<>(items.size() * 2);
+        for (InventoryItemHashDto item : items) {
+            validateLot(item.getCode(), item.getLotNumber());
+            validateHash(item.getHash());
+            String key = key(item.getCode(), item.getLotNumber());
+            if (!listed.add(key)) {
+                throw new BusinessException("Duplicate lot " + item.getCode() + " / " + item.getLotNumber());
+            }
+            ProductSyncState state = server.get(key);
+            if (state == null || !state.getSyncHash().equals(item.getHash())) {
+                requested.add(new ProductLotDto(item.getCode(), item.getLotNumber()));
+            }
+        }
+
+        List<ProductLotDto> absent = server.entrySet().stream()
+            .filter(entry -> !listed.contains(entry.getKey()))
+            .map(entry -> new ProductLotDto(entry.getValue().getCode(), entry.getValue().getLotNumber()))
+            .collect(Collectors.toList());
+
+        log.info("Inventory sync diff for hospital {}: {} items, {} requested, {} absent",
+            hospitalId, items.size(), requested.size(), absent.size());
+        return new InventoryDiffResponse(requested, absent);
+    }
+
+    /**
+     * Apply changed lots with the ERP's quantities and clear lots the ERP no longer lists
+     * The lines are validated once; the writes run in a transaction that is retried on a concurrent update.
+     */
+    public InventorySyncApplyResponse apply(Long hospitalId, InventorySyncApplyRequest request) {
+        requireHospital(hospitalId);
+        List<InventorySyncLineDto> lines = request.getProducts() != null ? request.getProducts() : List.of();
+        List<ProductLotDto> removed = request.getRemoved() != null ? request.getRemoved() : List.of();
+        if (lines.size() + removed.size() > MAX_SYNC_LINES) {
+            throw new BusinessException("Cannot apply more than " + MAX_SYNC_LINES + " lots at once");
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<AddProductRequest> upserts = new ArrayList<>(lines.size());
+        List<String> hashes = new ArrayList<>(lines.size());
+        for (InventorySyncLineDto line : lines) {
+            AddProductRequest product = line.toProductRequest();
+            productService.validateProductRequest(product);
+            validateHash(line.getHash());
+            if (!seen.add(key(line.getCode(), line.getLotNumber()))) {
+                throw new BusinessException("Duplicate lot " + line.getCode() + " / " + line.getLotNumber());
+            }
+            upserts.add(product);
+            hashes.add(line.getHash());
+        }
+        for (ProductLotDto lot : removed) {
+            validateLot(lot.getCode(), lot.getLotNumber());
+            if (!seen.add(key(lot.getCode(), lot.getLotNumber()))) {
+                throw new BusinessException("Lot " + lot.getCode() + " / " + lot.getLotNumber() + " is listed twice");
+            }
+        }
+
+        return optimisticRetryService.execute("inventory.sync", () -> applyAttempt(hospitalId, upserts, hashes, removed));
+    }
+
+    private InventorySyncApplyResponse applyAttempt(Long hospitalId, List<AddProductRequest> upserts,
+                                                    List<String> hashes, List<ProductLotDto> removed) {
+        List<ProductChange> changes = new ArrayList<>(upserts.size() + removed.size());
+        int created = 0;
+        if (!upserts.isEmpty()) {
+            for (ProductUpsertResult result : productRepository.replaceForSeller(hospitalId, upserts, hashes)) {
+                changes.add(new ProductChange(result.getId(), hospitalId,
+                    result.isInserted() ? ProductChangeType.CREATED : ProductChangeType.UPDATED));
+                created += result.isInserted() ? 1 : 0;
+            }
+        }
+        List<Long> clearedIds = removed.isEmpty() ? List.of() : productRepository.clearForSeller(hospitalId, removed);
+        clearedIds.forEach(id -> changes.add(new ProductChange(id, hospitalId, ProductChangeType.DELISTED)));
+
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(changes));
+        }
+        log.info("Inventory sync applied for hospital {}: {} created, {} updated, {} removed",
+            hospitalId, created, upserts.size() - created, clearedIds.size());
+        return new InventorySyncApplyResponse(created, upserts.size() - created, clearedIds.size());
+    }
+
+    /**
+     * Bucket of a lot: first byte of sha256(code + "\n" + lotNumber) as two lowercase hex digits
+     */
+    static String bucketOf(String code, String lotNumber) {
+        byte[] digest = sha256().digest((code + "\n" + lotNumber).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().toHexDigits(digest[0]);
+    }
+
+    static Map<String, String> bucketHashes(List<ProductSyncState> states) {
+        Map<String, List<ProductSyncState>> byBucket = new TreeMap<>();
+        for (ProductSyncState state : states) {
+            byBucket.computeIfAbsent(bucketOf(state.getCode(), state.getLotNumber()), bucket -> new ArrayList<>())
+                .add(state);
+        }
+
+        Map<String, String> hashes = new HashMap<>(byBucket.size() * 2);
+        MessageDigest digest = sha256();
+        byBucket.forEach((bucket, lots) -> {
+            lots.sort(LOT_ORDER);
+            for (ProductSyncState lot : lots) {
+                digest.update((lot.getCode() + "\n" + lot.getLotNumber() + "\n" + lot.getSyncHash() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+            hashes.put(bucket, HexFormat.of().formatHex(digest.digest()));
+        });
+        return hashes;
+    }
+
+    private void requireHospital(Long hospitalId) {
+        if (!hospitalProfileRepository.existsById(hospitalId)) {
+            throw new ResourceNotFoundException("Hospital profile not found with ID: " + hospitalId);
+        }
+    }
+
+    private static void validateBucket(String bucket) {
+        if (bucket == null || !BUCKET.matcher(bucket).matches()) {
+            throw new BusinessException("Invalid bucket '" + bucket + "'; expected two lowercase hex digits");
+        }
+    }
+
+    private static void validateLot(String code, String lotNumber) {
+        if (code == null || code.isBlank() || lotNumber == null || lotNumber.isBlank()) {
+            throw new BusinessException("Code and lot number are required");
+        }
+    }
+
+    private static void validateHash(String hash) {
+        if (hash == null || hash.isEmpty()) {
+            throw new BusinessException("Hash is required");
+        }
+        if (hash.length() > MAX_HASH_LENGTH) {
+            throw new BusinessException("Hash cannot exceed " + MAX_HASH_LENGTH + " characters");
+        }
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> union = new HashSet<>(a);
+        union.addAll(b);
+        return union;
+    }
+
+    private static String key(String code, String lotNumber) {
+        return code + '\u0000' + lotNumber;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.catalog.CatalogFilter;
+import com.kelox.backend.catalog.CatalogSnapshot;
+import com.kelox.backend.dto.ProductFacetsResponse;
+import com.kelox.backend.dto.ProductFilterRequest;
+import com.kelox.backend.dto.ProductChangesResponse;
+import com.kelox.backend.dto.ProductMatchDto;
+import com.kelox.backend.dto.ProductPageResponse;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.dto.ProductSearchResponse;
+import com.kelox.backend.dto.ProductSuggestionDto;
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.util.ProductCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the public marketplace
+ * Serves from the in-memory catalog snapshot when it is enabled and warm, otherwise from the database.
+ * Intentionally not transactional so snapshot reads never open a session or borrow a connection.
+ */
+@Service
+@RequiredArgsConstructor
+public class MarketplaceCatalogService {
+    
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductService productService;
+    private final ProductFacetService productFacetService;
+    private final ProductSuggestionService productSuggestionService;
+    private final CatalogChangeFeedService catalogChangeFeedService;
+    
+    /**
+     * Get one page of marketplace products, optionally for a single seller and narrowed by filters
+     */
+    public ProductPageResponse getProductsPage(Long sellerId, ProductFilterRequest filter, ProductSort sort,
+                                               Sort.Direction direction, String cursor, Integer size) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        
+        // Unknown hospitals go to the database, which either finds a newly created one or reports 404
+        if (snapshot == null || (sellerId != null && !snapshot.hasHospital(sellerId))) {
+            return productService.getProductsPage(sellerId, filter, sort, direction, cursor, size);
+        }
+        
+        int pageSize = ProductService.resolvePageSize(size);
+        ProductService.validateFilter(filter);
+        CatalogFilter catalogFilter = CatalogFilter.of(filter, sellerId, LocalDateTime.now());
+        ProductCursor after = cursor != null && !cursor.isBlank()
+            ? ProductCursor.decode(cursor, sort, direction)
+            : null;
+        
+        // A single selected seller can be paged from that seller's own sorted view
+        Long sellerView = catalogFilter.getSellers().size() == 1 ? catalogFilter.getSellers().iterator().next() : null;
+        List<CatalogEntry> rows = snapshot.page(sellerView, sort, direction, after, pageSize + 1, catalogFilter);
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<CatalogEntry> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            CatalogEntry last = page.get(page.size() - 1);
+            nextCursor = ProductCursor.after(last.getId(), last.getExpiryDate(), last.getPrice(), sort, direction).encode();
+        }
+        
+        List<ProductResponse> items = page.stream()
+            .map(CatalogEntry::toResponse)
+            .collect(Collectors.toList());
+        
+        return new ProductPageResponse(items, nextCursor, hasMore, pageSize);
+    }
+    
+    /**
+     * Facet counts for the given filter selection, served from the in-memory facet index
+     */
+    public ProductFacetsResponse getFacets(ProductFilterRequest filter) {
+        ProductService.validateFilter(filter);
+        return productFacetService.getFacets(CatalogFilter.of(filter, null, LocalDateTime.now()));
+    }
+    
+    /**
+     * Typeahead suggestions, served from the in-memory suggestion index
+     */
+    public List<ProductSuggestionDto> suggest(String prefix, Integer limit) {
+        return productSuggestionService.suggest(prefix, limit);
+    }
+    
+    /**
+     * Fuzzy code / lot number lookup
+     * Always served by PostgreSQL through the trigram indexes
+     */
+    public List<ProductMatchDto> findSimilarProducts(String text, Integer limit) {
+        return productService.findSimilarProducts(text, limit);
+    }
+    
+    /**
+     * Delta sync page
+     * Always served by PostgreSQL - the change sequence only exists there
+     */
+    public ProductChangesResponse getChangesSince(Long since, Long afterId, Integer size) {
+        return productService.getChangesSince(since, afterId, size);
+    }
+    
+    /**
+     * Open a live feed of committed product changes
+     */
+    public SseEmitter subscribeToChanges(String lastEventId) {
+        return catalogChangeFeedService.subscribe(lastEventId);
+    }
+    
+    /**
+     * Ranked full-text search
+     * Always served by PostgreSQL - the GIN index makes this an index lookup, not a scan
+     */
+    public ProductSearchResponse searchProducts(String query, Integer page, Integer size) {
+        return productService.searchProducts(query, page, size);
+    }
+    
+    /**
+     * Get several products in request order; unknown IDs are skipped
+     * Listed products come from the snapshot when it is warm, the rest from one database statement
+     */
+    public List<ProductResponse> getProductsByIds(List<Long> productIds) {
+        List<Long> ids = ProductService.resolveBatchIds(productIds);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        
+        Map<Long, ProductResponse> found = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<CatalogEntry> entry = snapshot != null ? snapshot.get(id) : Optional.empty();
+            if (entry.isPresent()) {
+                found.put(id, entry.get().toResponse());
+            } else {
+                missing.add(id);
+            }
+        }
+        found.putAll(productService.getProductsByIds(missing));
+        
+        return ids.stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Get a single product
+     */
+    public ProductResponse getProductById(Long productId) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        
+        Optional<CatalogEntry> entry = snapshot != null ? snapshot.get(productId) : Optional.empty();
+        return entry.map(CatalogEntry::toResponse)
+            .orElseGet(() -> productService.getProductById(productId));
+    }
+}
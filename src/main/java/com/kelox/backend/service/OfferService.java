@@ -39,6 +39,7 @@ public class OfferService {
     private final UserRepository userRepository;
     private final ShopService shopService;
     private final ChatOfferService chatOfferService;
+    private final OptimisticRetryService optimisticRetryService;
     
     /**
      * Create a new offer
@@ -263,8 +264,11 @@ public class OfferService {
      * Accept an offer
      * Automatically adds all offer products to the hospital's shopping cart
      */
-    @Transactional
     public OfferResponse acceptOffer(UUID offerId, UUID userId) {
+        return optimisticRetryService.execute("offer.accept", () -> acceptOfferAttempt(offerId, userId));
+    }
+    
+    private OfferResponse acceptOfferAttempt(UUID offerId, UUID userId) {
         log.info("Accepting offer {} by user {}", offerId, userId);
         
         Offer offer = offerRepository.findById(offerId)
@@ -295,8 +299,11 @@ public class OfferService {
     /**
      * Reject an offer
      */
-    @Transactional
     public OfferResponse rejectOffer(UUID offerId, UUID userId) {
+        return optimisticRetryService.execute("offer.reject", () -> rejectOfferAttempt(offerId, userId));
+    }
+    
+    private OfferResponse rejectOfferAttempt(UUID offerId, UUID userId) {
         log.info("Rejecting offer {} by user {}", offerId, userId);
         
         Offer offer = offerRepository.findById(offerId)
@@ -325,8 +332,11 @@ public class OfferService {
      * Cancel an offer (only if pending and created by the user)
      * Changes status to CANCELED instead of deleting
      */
-    @Transactional
     public OfferResponse cancelOffer(UUID offerId, UUID userId) {
+        return optimisticRetryService.execute("offer.cancel", () -> cancelOfferAttempt(offerId, userId));
+    }
+    
+    private OfferResponse cancelOfferAttempt(UUID offerId, UUID userId) {
         log.info("Canceling offer {} by user {}", offerId, userId);
         
         Offer offer = offerRepository.findById(offerId)
@@ -360,8 +370,11 @@ public class OfferService {
     /**
      * Update an offer (only if pending and created by the user)
      */
-    @Transactional
     public OfferResponse updateOffer(UUID offerId, UpdateOfferRequest request, UUID userId) {
+        return optimisticRetryService.execute("offer.update", () -> updateOfferAttempt(offerId, request, userId));
+    }
+    
+    private OfferResponse updateOfferAttempt(UUID offerId, UpdateOfferRequest request, UUID userId) {
         log.info("Updating offer {} by user {}", offerId, userId);
         
         // Validate request
@@ -429,8 +442,11 @@ public class OfferService {
      * Re-open a rejected offer with updated products
      * Allows the creator to modify products and change status from REJECTED back to PENDING
      */
-    @Transactional
     public OfferResponse reopenRejectedOffer(UUID offerId, UpdateOfferRequest request, UUID userId) {
+        return optimisticRetryService.execute("offer.reopen", () -> reopenRejectedOfferAttempt(offerId, request, userId));
+    }
+    
+    private OfferResponse reopenRejectedOfferAttempt(UUID offerId, UpdateOfferRequest request, UUID userId) {
         log.info("Re-opening rejected offer {} by user {}", offerId, userId);
         
         // Validate request
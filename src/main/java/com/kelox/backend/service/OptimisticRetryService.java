@@ -0,0 +1,87 @@
+package com.kelox.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-modify-write operations on versioned entities in a transaction, retrying on conflicts
+ * A stale @Version, a deadlock or a lock timeout rolls the attempt back; it is re-run from the start in a fresh
+ * transaction after a jittered exponential backoff, up to a bounded number of attempts. When called inside an
+ * existing transaction the operation runs once and the outermost caller owns the retry.
+ */
+@Service
+@Slf4j
+public class OptimisticRetryService {
+    
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    
+    public OptimisticRetryService(PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${marketplace.retry.max-attempts:4}") int maxAttempts,
+                                  @Value("${marketplace.retry.initial-backoff-ms:20}") long initialBackoffMs,
+                                  @Value("${marketplace.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+    
+    /**
+     * Run the operation in its own transaction; the operation name tags the metrics
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    counter("kelox.retry.conflicts", operation,
+                        "Operations that still conflicted after the last attempt").increment();
+                    log.warn("{} still conflicting after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                counter("kelox.retry.retries", operation,
+                    "Attempts rolled back because of a concurrent update and run again").increment();
+                log.info("{} conflicted with a concurrent update (attempt {}), retrying", operation, attempt);
+                backOff(attempt);
+            }
+        }
+    }
+    
+    private void backOff(int attempt) {
+        // Full jitter: spreads out requests that collided on the same row
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+    
+    private Counter counter(String name, String operation, String description) {
+        return Counter.builder(name)
+            .tag("operation", operation)
+            .description(description)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.dto.OrderEventResponse;
+import com.kelox.backend.entity.Order;
+import com.kelox.backend.entity.OrderEvent;
+import com.kelox.backend.enums.OrderEventType;
+import com.kelox.backend.enums.OrderStatus;
+import com.kelox.backend.exception.BusinessException;
+import com.kelox.backend.exception.ResourceNotFoundException;
+import com.kelox.backend.repository.HospitalProfileRepository;
+import com.kelox.backend.repository.OrderEventRepository;
+import com.kelox.backend.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Order event log: appended in the transaction that changes the order, read for timelines and ops feeds
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventService {
+    
+    public static final String ADMIN_ACTOR = "admin";
+    public static final int DEFAULT_FEED_LIMIT = 100;
+    public static final int MAX_FEED_LIMIT = 500;
+    
+    private final OrderEventRepository orderEventRepository;
+    private final OrderRepository orderRepository;
+    private final HospitalProfileRepository hospitalProfileRepository;
+    
+    public static String userActor(UUID userId) {
+        return "user:" + userId;
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Order order, OrderEventType type, OrderStatus fromStatus, OrderStatus toStatus,
+                       String details, String actor) {
+        OrderEvent event = new OrderEvent();
+        event.setOrderId(order.getId());
+        event.setEventType(type);
+        event.setFromStatus(fromStatus);
+        event.setToStatus(toStatus);
+        event.setDetails(details);
+        event.setActor(actor);
+        orderEventRepository.save(event);
+        log.debug("Order {} event {}: {} -> {}", order.getId(), type, fromStatus, toStatus);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order, String actor) {
+        record(order, OrderEventType.CREATED, null, order.getStatus(), null, actor);
+    }
+    
+    /**
+     * Timeline of an order, oldest first
+     * Admin only
+     */
+    @Transactional(readOnly = true)
+    public List<OrderEventResponse> getTimeline(UUID orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            throw new ResourceNotFoundException("Order not found with ID: " + orderId);
+        }
+        return toResponses(orderEventRepository.findByOrderIdOrderByIdAsc(orderId));
+    }
+    
+    /**
+     * Timeline of one of the user's hospital's orders, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<OrderEventResponse> getTimelineForUser(UUID orderId, UUID userId) {
+        Order order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+        if (!hospitalProfileRepository.existsByIdAndOwnerId(order.getHospital().getId(), userId)) {
+            throw new BusinessException("You can only view the history of your own hospital's orders");
+        }
+        return toResponses(orderEventRepository.findByOrderIdOrderByIdAsc(orderId));
+    }
+    
+    /**
+     * Events across all orders, oldest first
+     * Admin only; starts with the last day's events, then pages forward by passing the last event ID received
+     */
+    @Transactional(readOnly = true)
+    public List<OrderEventResponse> getRecentEvents(Long afterId, Integer limit) {
+        int size = limit != null ? limit : DEFAULT_FEED_LIMIT;
+        if (size < 1 || size > MAX_FEED_LIMIT) {
+            throw new BusinessException("Limit must be between 1 and " + MAX_FEED_LIMIT);
+        }
+        PageRequest page = PageRequest.of(0, size);
+        List<OrderEvent> events = afterId != null
+            ? orderEventRepository.findByIdGreaterThanOrderByIdAsc(afterId, page)
+            : orderEventRepository.findByCreatedAtGreaterThanEqualOrderByIdAsc(LocalDateTime.now().minusDays(1), page);
+        return toResponses(events);
+    }
+    
+    private static List<OrderEventResponse> toResponses(List<OrderEvent> events) {
+        return events.stream()
+            .map(OrderEventResponse::fromEntity)
+            .collect(Collectors.toList());
+    }
+}
@@ -4,17 +4,28 @@ import com.kelox.backend.dto.OrderResponse;
 import com.kelox.backend.entity.Order;
 import com.kelox.backend.entity.OrderItem;
 import com.kelox.backend.entity.Product;
+import com.kelox.backend.enums.OrderEventType;
 import com.kelox.backend.enums.OrderStatus;
+import com.kelox.backend.enums.ProductChangeType;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
 import com.kelox.backend.exception.BusinessException;
 import com.kelox.backend.exception.ResourceNotFoundException;
 import com.kelox.backend.repository.OrderRepository;
 import com.kelox.backend.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,11 +34,16 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockReservationService stockReservationService;
+    private final OrderStateMachine orderStateMachine;
+    private final OrderEventService orderEventService;
     
     /**
      * Update order status
      * Admin only
-     * When changing to CONFIRMING_PAYMENT, delivery fee must be provided
+     * Allowed transitions, guards (e.g. delivery fee required for CONFIRMING_PAYMENT) and side effects are
+     * defined in OrderStateMachine
      */
     @Transactional
     public OrderResponse updateOrderStatus(UUID orderId, OrderStatus newStatus, Float deliveryFee) {
@@ -38,24 +54,11 @@ public class OrderService {
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Order not found with ID: " + orderId));
         
-        // Validate status transition
-        validateStatusTransition(order.getStatus(), newStatus);
-        
-        // If changing to CONFIRMING_PAYMENT, delivery fee must be provided
-        if (newStatus == OrderStatus.CONFIRMING_PAYMENT) {
-            if (deliveryFee == null) {
-                throw new BusinessException(
-                    "Delivery fee is required when changing status to CONFIRMING_PAYMENT");
-            }
-            if (deliveryFee < 0) {
-                throw new BusinessException("Delivery fee must be non-negative");
-            }
-            order.setDeliveryFee(deliveryFee);
-            log.info("Delivery fee set to {} for order {}", deliveryFee, orderId);
+        if (newStatus == null) {
+            throw new BusinessException("Status is required");
         }
         
-        // Update status
-        order.setStatus(newStatus);
+        orderStateMachine.transition(order, newStatus, deliveryFee, OrderEventService.ADMIN_ACTOR);
         Order updatedOrder = orderRepository.save(order);
         
         log.info("Order {} status updated to {}", orderId, newStatus);
@@ -63,41 +66,6 @@ public class OrderService {
         return OrderResponse.fromEntity(updatedOrder);
     }
     
-    /**
-     * Validate status transition
-     */
-    private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
-        // Can't change from terminal states
-        if (currentStatus == OrderStatus.COMPLETED) {
-            throw new BusinessException("Cannot change status of a completed order");
-        }
-        if (currentStatus == OrderStatus.CANCELED) {
-            throw new BusinessException("Cannot change status of a canceled order");
-        }
-        
-        // Validate logical flow
-        if (currentStatus == OrderStatus.CALCULATING_LOGISTICS && 
-            newStatus != OrderStatus.CONFIRMING_PAYMENT && 
-            newStatus != OrderStatus.CANCELED) {
-            throw new BusinessException(
-                "From CALCULATING_LOGISTICS can only move to CONFIRMING_PAYMENT or CANCELED");
-        }
-        
-        if (currentStatus == OrderStatus.CONFIRMING_PAYMENT && 
-            newStatus != OrderStatus.IN_TRANSIT && 
-            newStatus != OrderStatus.CANCELED) {
-            throw new BusinessException(
-                "From CONFIRMING_PAYMENT can only move to IN_TRANSIT or CANCELED");
-        }
-        
-        if (currentStatus == OrderStatus.IN_TRANSIT && 
-            newStatus != OrderStatus.COMPLETED && 
-            newStatus != OrderStatus.CANCELED) {
-            throw new BusinessException(
-                "From IN_TRANSIT can only move to COMPLETED or CANCELED");
-        }
-    }
-    
     /**
      * Update order paid status
      * Admin only
@@ -115,9 +83,15 @@ public class OrderService {
         // If setting to paid=true and was previously false, reduce product quantities
         if (Boolean.TRUE.equals(paid) && !Boolean.TRUE.equals(order.getPaid())) {
             log.info("Order {} is being marked as paid, reducing product quantities", orderId);
+            stockReservationService.releaseOrder(orderId);
             reduceProductQuantities(order);
         }
         
+        if (paid != null && !paid.equals(order.getPaid())) {
+            orderEventService.record(order, paid ? OrderEventType.PAID : OrderEventType.UNPAID,
+                order.getStatus(), order.getStatus(), null, OrderEventService.ADMIN_ACTOR);
+        }
+        
         // Update paid status
         order.setPaid(paid);
         Order updatedOrder = orderRepository.save(order);
@@ -129,34 +103,54 @@ public class OrderService {
     
     /**
      * Reduce product quantities based on order items
+     * All lines are applied in one batch of conditional updates; if any product is short, the whole order
+     * rolls back and every short line is reported. Units held by other carts and orders are not available,
+     * e.g. when this order's hold expired and other buyers reserved the stock meanwhile.
      */
     private void reduceProductQuantities(Order order) {
+        // Product IDs come from the lazy references, so products are not loaded before the update
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem orderItem : order.getOrderItems()) {
-            Product product = orderItem.getProduct();
-            
-            if (product == null) {
+            if (orderItem.getProduct() == null) {
                 log.warn("OrderItem {} has no product, skipping quantity reduction", orderItem.getId());
                 continue;
             }
-            
-            // Check if enough quantity is available
-            if (product.getQuantity() < orderItem.getQuantity()) {
-                throw new BusinessException(
-                    "Insufficient quantity for product " + product.getName() + 
-                    ". Available: " + product.getQuantity() + 
-                    ", Required: " + orderItem.getQuantity());
-            }
-            
-            // Reduce product quantity
-            int newQuantity = product.getQuantity() - orderItem.getQuantity();
-            product.setQuantity(newQuantity);
-            productRepository.save(product);
-            
-            log.info("Reduced product {} quantity by {} (new quantity: {})", 
-                product.getId(), orderItem.getQuantity(), newQuantity);
+            quantities.merge(orderItem.getProduct().getId(), orderItem.getQuantity(), Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+        
+        List<Long> shortProductIds = productRepository.subtractQuantities(quantities);
+        
+        // Loaded after the update, so quantities are current
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        
+        if (!shortProductIds.isEmpty()) {
+            String shortLines = order.getOrderItems().stream()
+                .filter(item -> item.getProduct() != null && shortProductIds.contains(item.getProduct().getId()))
+                .map(item -> {
+                    Product product = products.get(item.getProduct().getId());
+                    return "order item " + item.getId() + " (" + product.getName() + ", product " + product.getId() +
+                        "): required " + item.getQuantity() + ", order total " + quantities.get(product.getId()) +
+                        ", available " + product.getAvailableQuantity();
+                })
+                .collect(Collectors.joining("; "));
+            log.warn("Insufficient quantity for order {}: {}", order.getId(), shortLines);
+            throw new BusinessException("Insufficient quantity for " + shortLines);
+        }
+        
+        List<ProductChange> changes = new ArrayList<>(products.size());
+        for (Product product : products.values()) {
+            changes.add(new ProductChange(product.getId(), product.getSeller().getId(), ProductChangeType.QUANTITY_CHANGED));
+            log.info("Reduced product {} quantity by {} (new quantity: {})",
+                product.getId(), quantities.get(product.getId()), product.getQuantity());
         }
         
         log.info("Successfully reduced quantities for all products in order {}", order.getId());
+        
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(changes));
     }
 }
 
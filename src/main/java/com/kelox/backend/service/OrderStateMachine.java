@@ -0,0 +1,147 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.entity.Order;
+import com.kelox.backend.enums.OrderEventType;
+import com.kelox.backend.enums.OrderStatus;
+import com.kelox.backend.exception.BusinessException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Order status transitions
+ * The table lists where each status may move; statuses with no targets are terminal. Guards registered for a
+ * target status run before the change and reject it by throwing, effects run after the status is set, and
+ * every transition is appended to the order event log in the same transaction.
+ */
+@Service
+@Slf4j
+public class OrderStateMachine {
+    
+    /**
+     * A transition in progress, as seen by guards and effects
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Transition {
+        private final Order order;
+        private final OrderStatus from;
+        private final OrderStatus to;
+        private final Float deliveryFee;
+        @Getter(AccessLevel.NONE)
+        private final List<String> notes = new ArrayList<>();
+        
+        /**
+         * Add a line to the event's details
+         */
+        public void note(String note) {
+            notes.add(note);
+        }
+    }
+    
+    private final Map<OrderStatus, Set<OrderStatus>> transitions = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, List<Consumer<Transition>>> guards = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, List<Consumer<Transition>>> effects = new EnumMap<>(OrderStatus.class);
+    
+    private final OrderEventService orderEventService;
+    
+    public OrderStateMachine(OrderEventService orderEventService, StockReservationService stockReservationService) {
+        this.orderEventService = orderEventService;
+        
+        allow(OrderStatus.CALCULATING_LOGISTICS, OrderStatus.CONFIRMING_PAYMENT, OrderStatus.CANCELED);
+        allow(OrderStatus.CONFIRMING_PAYMENT, OrderStatus.IN_TRANSIT, OrderStatus.CANCELED);
+        allow(OrderStatus.IN_TRANSIT, OrderStatus.COMPLETED, OrderStatus.CANCELED);
+        allow(OrderStatus.COMPLETED);
+        allow(OrderStatus.CANCELED);
+        
+        // Payment can only be requested once logistics has priced the delivery
+        guard(OrderStatus.CONFIRMING_PAYMENT, transition -> {
+            if (transition.getDeliveryFee() == null) {
+                throw new BusinessException(
+                    "Delivery fee is required when changing status to CONFIRMING_PAYMENT");
+            }
+            if (transition.getDeliveryFee() < 0) {
+                throw new BusinessException("Delivery fee must be non-negative");
+            }
+        });
+        effect(OrderStatus.CONFIRMING_PAYMENT, transition -> {
+            transition.getOrder().setDeliveryFee(transition.getDeliveryFee());
+            transition.note("Delivery fee set to " + transition.getDeliveryFee());
+        });
+        
+        // A canceled order gives back the stock it holds
+        effect(OrderStatus.CANCELED, transition ->
+            stockReservationService.releaseOrder(transition.getOrder().getId()));
+        
+        for (OrderStatus status : OrderStatus.values()) {
+            if (!transitions.containsKey(status)) {
+                throw new IllegalStateException("No transitions defined for order status " + status);
+            }
+        }
+    }
+    
+    /**
+     * Move an order to a new status; the caller saves the order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transition(Order order, OrderStatus newStatus, Float deliveryFee, String actor) {
+        OrderStatus currentStatus = order.getStatus();
+        if (!canTransition(currentStatus, newStatus)) {
+            throw new BusinessException(rejection(currentStatus));
+        }
+        
+        Transition transition = new Transition(order, currentStatus, newStatus, deliveryFee);
+        guards.getOrDefault(newStatus, List.of()).forEach(guard -> guard.accept(transition));
+        
+        order.setStatus(newStatus);
+        effects.getOrDefault(newStatus, List.of()).forEach(effect -> effect.accept(transition));
+        
+        String details = transition.notes.isEmpty() ? null : String.join("; ", transition.notes);
+        orderEventService.record(order, OrderEventType.STATUS_CHANGED, currentStatus, newStatus, details, actor);
+        log.info("Order {} moved from {} to {}", order.getId(), currentStatus, newStatus);
+    }
+    
+    public boolean canTransition(OrderStatus from, OrderStatus to) {
+        return transitions.get(from).contains(to);
+    }
+    
+    public boolean isTerminal(OrderStatus status) {
+        return transitions.get(status).isEmpty();
+    }
+    
+    private String rejection(OrderStatus from) {
+        if (isTerminal(from)) {
+            return "Cannot change status of a " + from.name().toLowerCase() + " order";
+        }
+        return "From " + from + " can only move to " + transitions.get(from).stream()
+            .map(OrderStatus::name)
+            .collect(Collectors.joining(" or "));
+    }
+    
+    private void allow(OrderStatus from, OrderStatus... to) {
+        Set<OrderStatus> targets = EnumSet.noneOf(OrderStatus.class);
+        targets.addAll(List.of(to));
+        transitions.put(from, targets);
+    }
+    
+    private void guard(OrderStatus to, Consumer<Transition> guard) {
+        guards.computeIfAbsent(to, status -> new ArrayList<>()).add(guard);
+    }
+    
+    private void effect(OrderStatus to, Consumer<Transition> effect) {
+        effects.computeIfAbsent(to, status -> new ArrayList<>()).add(effect);
+    }
+}
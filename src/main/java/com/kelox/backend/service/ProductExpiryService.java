@@ -0,0 +1,142 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.ExpiringProduct;
+import com.kelox.backend.catalog.ExpiryIndex;
+import com.kelox.backend.enums.ProductChangeType;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
+import com.kelox.backend.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Takes expired lots off the marketplace
+ * Listed products expiring within the horizon are held in an {@link ExpiryIndex}; every tick the due ones are
+ * flipped to unlisted in one statement and a DELISTED change is published, which evicts them from the catalog
+ * snapshot, facet index and response caches. The horizon is reloaded from the database periodically, which also
+ * picks up products written by other instances and anything that was missed while the application was down.
+ */
+@Service
+@Slf4j
+public class ProductExpiryService {
+    
+    private static final int DELIST_BATCH_SIZE = 1000;
+    
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long horizonMs;
+    
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+    private volatile LocalDateTime horizonEnd;
+    
+    public ProductExpiryService(ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${marketplace.catalog.expiry.reload-interval-ms:3600000}") long reloadIntervalMs) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Twice the reload interval, so a failed reload still leaves the next interval covered
+        this.horizonMs = reloadIntervalMs * 2;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reloadHorizon();
+    }
+    
+    /**
+     * Reload every listed product expiring before the horizon, including overdue ones
+     */
+    @Scheduled(
+        fixedDelayString = "${marketplace.catalog.expiry.reload-interval-ms:3600000}",
+        initialDelayString = "${marketplace.catalog.expiry.reload-interval-ms:3600000}")
+    public synchronized void reloadHorizon() {
+        try {
+            LocalDateTime until = LocalDateTime.now().plus(horizonMs, ChronoUnit.MILLIS);
+            List<ExpiringProduct> expiring = productRepository.findListedExpiringBefore(until);
+            expiryIndex.replaceAll(expiring);
+            horizonEnd = until;
+            log.info("Expiry index loaded with {} products expiring before {}", expiring.size(), until);
+        } catch (RuntimeException e) {
+            log.error("Failed to reload expiry index: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Unlist everything that expired since the last tick
+     */
+    @Scheduled(fixedDelayString = "${marketplace.catalog.expiry.tick-ms:60000}")
+    public void delistDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExpiringProduct> due = expiryIndex.pollDue(now);
+        if (due.isEmpty()) {
+            return;
+        }
+        
+        for (int from = 0; from < due.size(); from += DELIST_BATCH_SIZE) {
+            List<ExpiringProduct> batch = due.subList(from, Math.min(from + DELIST_BATCH_SIZE, due.size()));
+            try {
+                Integer delisted = transactionTemplate.execute(status -> {
+                    int updated = productRepository.delistExpired(
+                        batch.stream().map(ExpiringProduct::getProductId).collect(Collectors.toList()), now);
+                    // Listeners run after commit; rows another instance already delisted just reload as absent
+                    eventPublisher.publishEvent(new ProductCatalogChangedEvent(batch.stream()
+                        .map(product -> new ProductChange(product.getProductId(), product.getSellerId(), ProductChangeType.DELISTED))
+                        .collect(Collectors.toList())));
+                    return updated;
+                });
+                log.info("Delisted {} expired products", delisted);
+            } catch (RuntimeException e) {
+                // Put them back so the next tick retries
+                batch.forEach(expiryIndex::schedule);
+                log.error("Failed to delist {} expired products: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Track new lots and follow expiry date changes made by this instance
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductCatalogChangedEvent event) {
+        Set<Long> productIds = event.getChanges().stream()
+            .filter(change -> change.getType() == ProductChangeType.CREATED || change.getType() == ProductChangeType.UPDATED)
+            .map(ProductChange::getProductId)
+            .collect(Collectors.toSet());
+        if (productIds.isEmpty() || horizonEnd == null) {
+            return;
+        }
+        
+        try {
+            Set<Long> untracked = new HashSet<>(productIds);
+            for (ExpiringProduct product : productRepository.findListedExpiries(productIds)) {
+                if (!product.getExpiryDate().isAfter(horizonEnd)) {
+                    expiryIndex.schedule(product);
+                    untracked.remove(product.getProductId());
+                }
+            }
+            untracked.forEach(expiryIndex::cancel);
+        } catch (RuntimeException e) {
+            // The next horizon reload will catch up
+            log.error("Failed to update expiry index for products {}: {}", productIds, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.kelox.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kelox.backend.catalog.CatalogFilter;
+import com.kelox.backend.dto.ProductFilterRequest;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.repository.ProductRepository;
+import com.kelox.backend.repository.ProductSpecifications;
+import com.kelox.backend.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Streams the marketplace catalog as newline-delimited JSON
+ * Rows are read through a forward-only cursor and written as they arrive, so memory use does not
+ * depend on catalog size. The read transaction stays open (holding one connection) for the whole export,
+ * so exports run on their own small pool with a cap on concurrent exports; beyond it they are refused.
+ */
+@Service
+@Slf4j
+public class ProductExportService {
+    
+    static final int FETCH_SIZE = 500;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private static final int RETRY_AFTER_SECONDS = 60;
+    
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxConcurrent;
+    private final long timeoutMs;
+    private final Semaphore slots;
+    
+    private ThreadPoolTaskExecutor executor;
+    
+    public ProductExportService(ProductRepository productRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${marketplace.export.max-concurrent:2}") int maxConcurrent,
+                                @Value("${marketplace.export.timeout-ms:1800000}") long timeoutMs) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxConcurrent = maxConcurrent;
+        this.timeoutMs = timeoutMs;
+        this.slots = new Semaphore(maxConcurrent);
+    }
+    
+    @PostConstruct
+    void startExecutor() {
+        // Owned here rather than exposed as a bean, which would replace Spring Boot's default task executor
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        // Slots are released just before a thread returns to the pool; the queue absorbs that gap
+        executor.setQueueCapacity(maxConcurrent);
+        executor.setThreadNamePrefix("product-export-");
+        executor.initialize();
+    }
+    
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+    
+    /**
+     * Validate the filter before the response is committed, so errors still become a 400
+     */
+    public void validate(ProductFilterRequest filter) {
+        ProductService.validateFilter(filter);
+    }
+    
+    /**
+     * Export to the response on the export pool, with its own timeout instead of the global async one
+     * Throws ServiceUnavailableException (503) when the maximum number of exports is already running.
+     */
+    public WebAsyncTask<Void> startExport(ProductFilterRequest filter, HttpServletResponse response) {
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many catalog exports in progress, please try again later",
+                RETRY_AFTER_SECONDS);
+        }
+        WebAsyncTask<Void> task = new WebAsyncTask<>(timeoutMs, executor, () -> {
+            try {
+                export(filter, response.getOutputStream());
+                return null;
+            } finally {
+                slots.release();
+            }
+        });
+        task.onTimeout(() -> {
+            // The worker is interrupted and stops at its next write to the closed response
+            log.warn("Catalog export timed out after {} ms", timeoutMs);
+            return null;
+        });
+        return task;
+    }
+    
+    /**
+     * Write every listed product matching the filter, one JSON object per line, ordered by id
+     */
+    public void export(ProductFilterRequest filter, OutputStream out) {
+        long startedAt = System.currentTimeMillis();
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (Stream<ProductResponse> products = productRepository.streamResponses(
+                    ProductSpecifications.listed()
+                        .and(ProductSpecifications.matches(CatalogFilter.of(filter, null, LocalDateTime.now()))),
+                    Sort.by(Sort.Direction.ASC, "id"),
+                    FETCH_SIZE)) {
+                long written = 0;
+                Iterator<ProductResponse> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                    if (++written % FLUSH_EVERY_ROWS == 0) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+                return written;
+            } catch (IOException e) {
+                // Usually the client went away; rolls back the read-only transaction and frees the cursor
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} products in {} ms", rows, System.currentTimeMillis() - startedAt);
+    }
+}
@@ -0,0 +1,104 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.catalog.CatalogFilter;
+import com.kelox.backend.catalog.FacetIndex;
+import com.kelox.backend.dto.ProductFacetsResponse;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the marketplace facet index in sync with the products table
+ * Built on startup, patched after every committed product write and rebuilt on a fixed interval
+ * to pick up writes made by other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetService {
+    
+    private final CatalogLoader catalogLoader;
+    
+    private final FacetIndex facetIndex = new FacetIndex();
+    private volatile boolean loaded;
+    
+    /**
+     * Facet counts for the filter selection
+     */
+    public ProductFacetsResponse getFacets(CatalogFilter filter) {
+        ensureLoaded();
+        return facetIndex.facets(filter, LocalDateTime.now());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            // Retried lazily by the first facet request
+            log.error("Failed to build facet index on startup: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Scheduled(
+        fixedDelayString = "${marketplace.catalog.facets.refresh-interval-ms:300000}",
+        initialDelayString = "${marketplace.catalog.facets.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild facet index: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Patch the index with products written by a committed transaction
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductsChanged(ProductCatalogChangedEvent event) {
+        if (!loaded || event.getChanges().isEmpty()) {
+            return;
+        }
+        try {
+            Set<Long> productIds = event.getProductIds();
+            List<CatalogEntry> upserts = catalogLoader.loadByIds(productIds);
+            
+            Set<Long> removed = new HashSet<>(productIds);
+            upserts.forEach(entry -> removed.remove(entry.getId()));
+            
+            facetIndex.apply(upserts, removed);
+        } catch (RuntimeException e) {
+            // The periodic rebuild will converge
+            log.error("Failed to patch facet index for products {}: {}", event.getProductIds(), e.getMessage(), e);
+        }
+    }
+    
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+    
+    private synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        facetIndex.replaceAll(catalogLoader.loadAll());
+        loaded = true;
+        log.info("Facet index built with {} products in {} ms", facetIndex.size(), System.currentTimeMillis() - startedAt);
+    }
+}
@@ -0,0 +1,394 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.config.ImportConfig;
+import com.kelox.backend.dto.AddProductRequest;
+import com.kelox.backend.dto.ProductImportJobResponse;
+import com.kelox.backend.entity.ProductImportError;
+import com.kelox.backend.entity.ProductImportJob;
+import com.kelox.backend.enums.ImportJobStatus;
+import com.kelox.backend.enums.Unit;
+import com.kelox.backend.exception.BusinessException;
+import com.kelox.backend.exception.ResourceNotFoundException;
+import com.kelox.backend.repository.ProductImportErrorRepository;
+import com.kelox.backend.repository.ProductImportJobRepository;
+import com.kelox.backend.util.CsvReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Background CSV stock imports
+ * The upload is spooled to a temporary file, then parsed record by record on a dedicated executor. Valid rows
+ * are committed through {@link ProductService#addProductsForHospital} in chunks - one transaction per chunk -
+ * and rejected rows are kept for the error report. Progress is saved after every chunk.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    static final int MAX_STORED_ERRORS = 10000;
+    static final int MAX_RAW_ROW_LENGTH = 1000;
+    static final long STALE_AFTER_MINUTES = 30;
+
+    private static final List<String> REQUIRED_COLUMNS =
+        List.of("name", "manufacturer", "code", "lotnumber", "expirydate", "price", "quantity", "unit");
+
+    private final ImportConfig importConfig;
+    private final ProductService productService;
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportErrorRepository errorRepository;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        // Owned here rather than exposed as a bean, which would replace Spring Boot's default task executor
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importConfig.getThreads());
+        executor.setMaxPoolSize(importConfig.getThreads());
+        executor.setQueueCapacity(importConfig.getQueueCapacity());
+        executor.setThreadNamePrefix("product-import-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        // Interrupted jobs are failed by the stale job sweep
+        executor.shutdown();
+    }
+
+    /**
+     * Spool an uploaded CSV file and queue it for import
+     * Only the upload itself runs on the request thread; parsing and saving happen in the background.
+     */
+    public ProductImportJobResponse startImport(Long hospitalId, UUID userId, String fileName, InputStream upload) {
+        Path file = spool(upload);
+
+        ProductImportJob job = new ProductImportJob();
+        job.setHospitalId(hospitalId);
+        job.setCreatedBy(userId);
+        job.setFileName(fileName);
+        job = jobRepository.save(job);
+
+        UUID jobId = job.getId();
+        try {
+            executor.execute(() -> run(jobId, file));
+        } catch (TaskRejectedException e) {
+            deleteQuietly(file);
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setErrorMessage("Too many imports in progress");
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            throw new BusinessException("Too many imports in progress, please try again later");
+        }
+
+        log.info("Queued product import {} for hospital {} ({})", jobId, hospitalId, fileName);
+        return ProductImportJobResponse.fromEntity(job);
+    }
+
+    /**
+     * Status and progress of one of the hospital's imports
+     */
+    public ProductImportJobResponse getJob(UUID jobId, Long hospitalId) {
+        return ProductImportJobResponse.fromEntity(findJob(jobId, hospitalId));
+    }
+
+    /**
+     * The hospital's most recent imports, newest first
+     */
+    public List<ProductImportJobResponse> getRecentJobs(Long hospitalId) {
+        return jobRepository.findTop20ByHospitalIdOrderByCreatedAtDesc(hospitalId).stream()
+            .map(ProductImportJobResponse::fromEntity)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Write the rejected rows of an import as CSV: line number, reason and the row as uploaded
+     */
+    public void writeErrorReport(UUID jobId, Long hospitalId, OutputStream out) throws IOException {
+        findJob(jobId, hospitalId);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("line,error,row\n");
+        for (ProductImportError error : errorRepository.findByJobIdOrderByLineNumberAsc(jobId)) {
+            writer.write(error.getLineNumber() + "," + CsvReader.escape(error.getMessage()) + ","
+                + CsvReader.escape(error.getRawRow()) + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Fail unfinished jobs that stopped making progress, e.g. because their instance was restarted
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void failStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int failed = jobRepository.failStale(now.minusMinutes(STALE_AFTER_MINUTES), now,
+            "Import stopped making progress; please upload the file again");
+        if (failed > 0) {
+            log.warn("Failed {} stale product imports", failed);
+        }
+    }
+
+    private ProductImportJob findJob(UUID jobId, Long hospitalId) {
+        return jobRepository.findByIdAndHospitalId(jobId, hospitalId)
+            .orElseThrow(() -> new ResourceNotFoundException("Import job not found with ID: " + jobId));
+    }
+
+    private Path spool(InputStream upload) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("product-import-", ".csv");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int read;
+                while ((read = upload.read(buffer)) != -1) {
+                    total += read;
+                    if (total > importConfig.getMaxUploadBytes()) {
+                        throw new BusinessException("File exceeds the maximum size of "
+                            + importConfig.getMaxUploadBytes() / (1024 * 1024) + " MB");
+                    }
+                    out.write(buffer, 0, read);
+                }
+                if (total == 0) {
+                    throw new BusinessException("File is empty");
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new BusinessException("Failed to read uploaded file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private void run(UUID jobId, Path file) {
+        ProductImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ImportJobStatus.QUEUED) {
+            // Deleted or already failed as stale while waiting in the queue
+            deleteQuietly(file);
+            return;
+        }
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        ImportRun importRun = new ImportRun(job);
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = resolveColumns(csv.readRecord());
+
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                importRun.add(csv.getRecordLineNumber(), record, columns);
+                if (importRun.pending.size() >= importConfig.getChunkSize()) {
+                    importRun.flush();
+                }
+            }
+            importRun.flush();
+
+            job.setStatus(ImportJobStatus.COMPLETED);
+            log.info("Product import {} completed: {} imported, {} failed",
+                jobId, job.getImportedRows(), job.getFailedRows());
+        } catch (BusinessException | IOException e) {
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setErrorMessage(e.getMessage());
+            log.warn("Product import {} failed: {}", jobId, e.getMessage());
+        } catch (RuntimeException e) {
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setErrorMessage("Unexpected error; rows committed before it are kept");
+            log.error("Product import {} failed: {}", jobId, e.getMessage(), e);
+        } finally {
+            deleteQuietly(file);
+        }
+
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    /**
+     * Map normalized header names to column positions, e.g. "Lot Number" and "lot_number" both to lotnumber
+     */
+    private static Map<String, Integer> resolveColumns(List<String> header) {
+        if (header == null) {
+            throw new BusinessException("File is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            columns.putIfAbsent(name, i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream()
+            .filter(column -> !columns.containsKey(column))
+            .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new BusinessException("Missing required columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static AddProductRequest toRequest(List<String> record, Map<String, Integer> columns) {
+        AddProductRequest request = new AddProductRequest();
+        request.setName(value(record, columns, "name"));
+        request.setManufacturer(value(record, columns, "manufacturer"));
+        request.setCode(value(record, columns, "code"));
+        request.setLotNumber(value(record, columns, "lotnumber"));
+        request.setDescription(value(record, columns, "description"));
+        request.setExpiryDate(parseExpiryDate(value(record, columns, "expirydate")));
+
+        String price = value(record, columns, "price");
+        String quantity = value(record, columns, "quantity");
+        String unit = value(record, columns, "unit");
+        try {
+            request.setPrice(price == null ? null : Float.parseFloat(price));
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid price: " + price);
+        }
+        try {
+            request.setQuantity(quantity == null ? null : Integer.parseInt(quantity));
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid quantity: " + quantity);
+        }
+        try {
+            request.setUnit(unit == null ? null : Unit.valueOf(unit.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid unit: " + unit + " (expected BOX or PIECE)");
+        }
+        return request;
+    }
+
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * ISO date (start of day) or date-time
+     */
+    private static LocalDateTime parseExpiryDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Invalid expiry date: " + value + " (expected YYYY-MM-DD)");
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Mutable state of one running import
+     */
+    private final class ImportRun {
+        private final ProductImportJob job;
+        private final List<AddProductRequest> pending = new ArrayList<>();
+        private final List<Integer> pendingLines = new ArrayList<>();
+        private final List<String> pendingRows = new ArrayList<>();
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private int storedErrors;
+
+        private ImportRun(ProductImportJob job) {
+            this.job = job;
+        }
+
+        private void add(int lineNumber, List<String> record, Map<String, Integer> columns) {
+            job.setProcessedRows(job.getProcessedRows() + 1);
+            try {
+                AddProductRequest request = toRequest(record, columns);
+                productService.validateProductRequest(request);
+                pending.add(request);
+                pendingLines.add(lineNumber);
+                pendingRows.add(rawRow(record));
+            } catch (BusinessException e) {
+                reject(lineNumber, e.getMessage(), rawRow(record));
+            }
+        }
+
+        /**
+         * Commit the pending rows in one transaction and save progress
+         */
+        private void flush() {
+            if (!pending.isEmpty()) {
+                try {
+                    productService.addProductsForHospital(job.getHospitalId(), pending);
+                    job.setImportedRows(job.getImportedRows() + pending.size());
+                } catch (RuntimeException e) {
+                    // The chunk rolled back as a whole; report every row in it
+                    log.warn("Product import {} chunk at line {} failed: {}",
+                        job.getId(), pendingLines.get(0), e.getMessage());
+                    for (int i = 0; i < pending.size(); i++) {
+                        reject(pendingLines.get(i), "Chunk could not be saved: " + e.getMessage(), pendingRows.get(i));
+                    }
+                }
+                pending.clear();
+                pendingLines.clear();
+                pendingRows.clear();
+            }
+
+            if (!errors.isEmpty()) {
+                errorRepository.saveAll(errors);
+                errors.clear();
+            }
+            jobRepository.save(job);
+        }
+
+        private void reject(int lineNumber, String message, String rawRow) {
+            job.setFailedRows(job.getFailedRows() + 1);
+            if (storedErrors < MAX_STORED_ERRORS) {
+                storedErrors++;
+                errors.add(new ProductImportError(null, job.getId(), lineNumber, message, rawRow));
+            }
+        }
+
+        private String rawRow(List<String> record) {
+            String row = record.stream().map(CsvReader::escape).collect(Collectors.joining(","));
+            return row.length() > MAX_RAW_ROW_LENGTH ? row.substring(0, MAX_RAW_ROW_LENGTH) : row;
+        }
+    }
+}
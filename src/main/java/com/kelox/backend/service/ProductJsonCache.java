@@ -0,0 +1,149 @@
+package com.kelox.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kelox.backend.dto.ProductPageResponse;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of pre-encoded ProductResponse JSON, keyed by product id and product version
+ * Listing responses are written by stitching the cached fragments together instead of running every
+ * product through Jackson again. Fragments are encoded with the application ObjectMapper, so the
+ * output is byte-for-byte what Jackson would have produced for the whole page. A fragment is only
+ * reused for an equal ProductResponse, so writes committed on other instances (which don't bump the
+ * local version) are never served stale; comparing fields is still far cheaper than encoding them.
+ */
+@Component
+@Slf4j
+public class ProductJsonCache {
+    
+    private static final byte[] ITEMS_START = "{\"items\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMMA = {','};
+    
+    private final ObjectMapper objectMapper;
+    private final CatalogVersionService catalogVersionService;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+    
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    
+    public ProductJsonCache(ObjectMapper objectMapper,
+                            CatalogVersionService catalogVersionService,
+                            MeterRegistry meterRegistry,
+                            @Value("${marketplace.catalog.json-cache.max-entries:100000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.catalogVersionService = catalogVersionService;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("kelox.catalog.json_cache.requests").tag("result", "hit")
+            .description("Product JSON fragments served from the cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("kelox.catalog.json_cache.requests").tag("result", "miss")
+            .description("Product JSON fragments encoded on demand")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Global catalog version to pass to {@link #writePage}; read it before loading the page
+     */
+    public long startRead() {
+        return catalogVersionService.globalVersion();
+    }
+    
+    /**
+     * Encode a page as JSON in memory; pages are at most a few hundred products, so the response is
+     * written on the request thread rather than streamed
+     */
+    public byte[] encodePage(ProductPageResponse page, long readVersion) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(page.getItems().size(), 1) * 512);
+        try {
+            writePage(page, readVersion, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Write a page as JSON, identical to serializing the ProductPageResponse with the ObjectMapper
+     * Fragments encoded during this call are only cached if no product write committed since
+     * startRead, so a body read before a commit can never be cached under the post-commit version.
+     */
+    public void writePage(ProductPageResponse page, long readVersion, OutputStream out) throws IOException {
+        out.write(ITEMS_START);
+        List<ProductResponse> items = page.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.write(COMMA);
+            }
+            out.write(fragment(items.get(i), readVersion));
+        }
+        out.write(("],\"nextCursor\":" + objectMapper.writeValueAsString(page.getNextCursor())
+            + ",\"hasMore\":" + page.getHasMore()
+            + ",\"size\":" + page.getSize() + "}").getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Drop fragments of products written by a committed transaction
+     * Not required for correctness (the version no longer matches) but frees the memory straight away
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductCatalogChangedEvent event) {
+        event.getProductIds().forEach(fragments::remove);
+    }
+    
+    public int size() {
+        return fragments.size();
+    }
+    
+    private byte[] fragment(ProductResponse product, long readVersion) {
+        long version = catalogVersionService.productVersion(product.getId());
+        Fragment cached = fragments.get(product.getId());
+        if (cached != null && cached.version == version && cached.product.equals(product)) {
+            hits.increment();
+            return cached.json;
+        }
+        
+        misses.increment();
+        byte[] json = encode(product);
+        // Checked after reading the product version: the global version is bumped first on writes
+        boolean unchanged = catalogVersionService.globalVersion() == readVersion;
+        if (unchanged && (cached != null || fragments.size() < maxEntries)) {
+            fragments.put(product.getId(), new Fragment(version, product, json));
+        }
+        return json;
+    }
+    
+    private byte[] encode(ProductResponse product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @AllArgsConstructor
+    private static final class Fragment {
+        private final long version;
+        private final ProductResponse product;
+        private final byte[] json;
+    }
+}
@@ -0,0 +1,151 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.dto.AddProductRequest;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.dto.ScanErrorDto;
+import com.kelox.backend.dto.ScanIntakeResponse;
+import com.kelox.backend.exception.BusinessException;
+import com.kelox.backend.repository.ProductRepository;
+import com.kelox.backend.repository.ProductSpecifications;
+import com.kelox.backend.util.Gs1ElementString;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Stock intake from scanned GS1 barcodes
+ * A label carries the GTIN, lot and expiry but not the name, manufacturer or price, so those are taken from
+ * the hospital's most recent lot of the same GTIN. The resolved lines then go through the regular add-products
+ * upsert. Other sellers' products are never used - their prices are theirs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductScanService {
+
+    public static final int MAX_SCANS = 1000;
+    
+    // Whole seconds, so the timestamp column doesn't round it into the next day
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+
+    /**
+     * Add scanned lots to a hospital's stock; each scan counts one unit unless the label carries a count (30)/(37)
+     * Not transactional: the upsert runs in its own transaction so a conflicting concurrent intake is retried.
+     */
+    public ScanIntakeResponse addScannedProducts(Long hospitalId, List<String> barcodes) {
+        if (barcodes == null || barcodes.isEmpty()) {
+            throw new BusinessException("At least one barcode is required");
+        }
+        if (barcodes.size() > MAX_SCANS) {
+            throw new BusinessException("Cannot submit more than " + MAX_SCANS + " barcodes at once");
+        }
+
+        int currentYear = LocalDate.now().getYear();
+        List<ScanErrorDto> errors = new ArrayList<>();
+        Map<Integer, Gs1ElementString> parsed = new LinkedHashMap<>();
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < barcodes.size(); i++) {
+            try {
+                Gs1ElementString scan = Gs1ElementString.parse(barcodes.get(i), currentYear);
+                if (scan.getGtin() == null || scan.getLotNumber() == null || scan.getExpiryDate() == null) {
+                    throw new BusinessException("Barcode must contain a GTIN (01), expiry date (17) and lot number (10)");
+                }
+                parsed.put(i, scan);
+                codes.addAll(codeVariants(scan.getGtin()));
+            } catch (BusinessException e) {
+                errors.add(new ScanErrorDto(i, barcodes.get(i), e.getMessage()));
+            }
+        }
+
+        Map<String, ProductResponse> references = findReferences(hospitalId, codes);
+
+        List<AddProductRequest> lines = new ArrayList<>(parsed.size());
+        for (Map.Entry<Integer, Gs1ElementString> entry : parsed.entrySet()) {
+            Gs1ElementString scan = entry.getValue();
+            ProductResponse reference = codeVariants(scan.getGtin()).stream()
+                .map(references::get)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+            if (reference == null) {
+                errors.add(new ScanErrorDto(entry.getKey(), barcodes.get(entry.getKey()),
+                    "Unknown GTIN " + scan.getGtin() + " for this hospital; add the product once with name and price first"));
+                continue;
+            }
+
+            AddProductRequest line = new AddProductRequest(
+                reference.getName(),
+                reference.getManufacturer(),
+                reference.getCode(),  // Keep the code format already in use, e.g. GTIN-13 without the leading zero
+                scan.getLotNumber(),
+                scan.getExpiryDate().atTime(END_OF_DAY),  // A lot is usable through its expiry date
+                reference.getDescription(),
+                reference.getPrice(),
+                scan.getCount() != null ? scan.getCount() : 1,
+                reference.getUnit()
+            );
+            
+            // One expired label or empty count only rejects its own scan
+            try {
+                if (line.getQuantity() < 1) {
+                    throw new BusinessException("Count (30)/(37) must be at least 1");
+                }
+                productService.validateProductRequest(line);
+            } catch (BusinessException e) {
+                errors.add(new ScanErrorDto(entry.getKey(), barcodes.get(entry.getKey()), e.getMessage()));
+                continue;
+            }
+            lines.add(line);
+        }
+
+        List<ProductResponse> products = List.of();
+        if (!lines.isEmpty()) {
+            Map<Long, ProductResponse> distinct = new LinkedHashMap<>();
+            productService.addProductsForHospital(hospitalId, lines)
+                .forEach(product -> distinct.putIfAbsent(product.getId(), product));
+            products = new ArrayList<>(distinct.values());
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        log.info("Scan intake for hospital {}: {} scans, {} lots updated, {} rejected",
+            hospitalId, barcodes.size(), products.size(), errors.size());
+
+        return new ScanIntakeResponse(products, errors);
+    }
+
+    /**
+     * The hospital's most recent product per code
+     */
+    private Map<String, ProductResponse> findReferences(Long hospitalId, Set<String> codes) {
+        Map<String, ProductResponse> references = new HashMap<>();
+        if (codes.isEmpty()) {
+            return references;
+        }
+        productRepository.findResponses(ProductSpecifications.sellerIs(hospitalId)
+                .and(ProductSpecifications.codeIn(codes)), Sort.by(Sort.Direction.DESC, "id"), null)
+            .forEach(product -> references.putIfAbsent(product.getCode(), product));
+        return references;
+    }
+
+    /**
+     * A GTIN-14 with a leading zero may be stored as its GTIN-13 / EAN-13 form
+     */
+    private static List<String> codeVariants(String gtin) {
+        return gtin.charAt(0) == '0' ? List.of(gtin, gtin.substring(1)) : List.of(gtin);
+    }
+}
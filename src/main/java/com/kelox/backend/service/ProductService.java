@@ -1,29 +1,55 @@
 package com.kelox.backend.service;
 
+import com.kelox.backend.catalog.CatalogFilter;
 import com.kelox.backend.dto.AddProductRequest;
+import com.kelox.backend.dto.AddToCartBatchRequest;
 import com.kelox.backend.dto.AddToCartRequest;
+import com.kelox.backend.dto.ProductFilterRequest;
+import com.kelox.backend.dto.ProductChangesResponse;
+import com.kelox.backend.dto.ProductMatchDto;
+import com.kelox.backend.dto.ProductPageResponse;
 import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.dto.ProductSearchResponse;
 import com.kelox.backend.dto.ShoppingCartResponse;
 import com.kelox.backend.entity.HospitalProfile;
 import com.kelox.backend.entity.Product;
 import com.kelox.backend.entity.ShopItem;
 import com.kelox.backend.entity.ShoppingCart;
-import com.kelox.backend.enums.ShopItemType;
+import com.kelox.backend.enums.ProductChangeType;
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
 import com.kelox.backend.exception.BusinessException;
 import com.kelox.backend.exception.ResourceNotFoundException;
 import com.kelox.backend.repository.HospitalProfileRepository;
+import com.kelox.backend.repository.ProductChangeKey;
 import com.kelox.backend.repository.ProductRepository;
-import com.kelox.backend.repository.ShopItemRepository;
+import com.kelox.backend.repository.ProductSimilarity;
+import com.kelox.backend.repository.ProductSpecifications;
+import com.kelox.backend.repository.ProductUpsertResult;
 import com.kelox.backend.repository.ShoppingCartRepository;
+import com.kelox.backend.util.ProductCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,79 +57,81 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProductService {
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    public static final int MAX_SEARCH_QUERY_LENGTH = 200;
+    public static final int MAX_SEARCH_RESULTS = 1000;
+    public static final int MAX_BATCH_IDS = 100;
+    public static final int DEFAULT_SIMILAR_LIMIT = 10;
+    public static final int MAX_SIMILAR_LIMIT = 50;
+    public static final int MAX_SIMILAR_TEXT_LENGTH = 100;
+    public static final int DEFAULT_CHANGES_PAGE_SIZE = 500;
+    public static final int MAX_CHANGES_PAGE_SIZE = 1000;
+    public static final int MAX_CART_BATCH_SIZE = 200;
+    
     private final ProductRepository productRepository;
     private final HospitalProfileRepository hospitalProfileRepository;
     private final ShoppingCartRepository shoppingCartRepository;
-    private final ShopItemRepository shopItemRepository;
     private final ShopService shopService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetryService optimisticRetryService;
+    private final StockReservationService stockReservationService;
     
     /**
      * Add a list of products for a hospital
      * If product with same code + lot number exists: updates quantity (adds to existing)
      * If product with same code but different lot number: creates new product
+     * The whole upload is upserted in a handful of statements on the (seller, code, lot number) constraint.
      */
-    @Transactional
     public List<ProductResponse> addProductsForHospital(Long hospitalId, List<AddProductRequest> productRequests) {
+        return optimisticRetryService.execute("product.add", () -> addProductsForHospitalAttempt(hospitalId, productRequests));
+    }
+    
+    private List<ProductResponse> addProductsForHospitalAttempt(Long hospitalId, List<AddProductRequest> productRequests) {
         log.info("Adding {} products for hospital ID: {}", productRequests.size(), hospitalId);
         
         // Validate hospital exists
-        HospitalProfile hospital = hospitalProfileRepository.findById(hospitalId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                "Hospital profile not found with ID: " + hospitalId));
-        
-        List<Product> processedProducts = new java.util.ArrayList<>();
+        if (!hospitalProfileRepository.existsById(hospitalId)) {
+            throw new ResourceNotFoundException("Hospital profile not found with ID: " + hospitalId);
+        }
+        productRequests.forEach(this::validateProductRequest);
         
-        // Process each product request
+        // One row per lot: a statement cannot upsert the same row twice. Folded as if the lines were
+        // applied one by one - quantities add up, the first price is kept, the last line's other fields win
+        Map<String, AddProductRequest> lots = new LinkedHashMap<>();
+        List<String> lineLots = new ArrayList<>(productRequests.size());
         for (AddProductRequest request : productRequests) {
-            validateProductRequest(request);
-            
-            // Check if product with same code + lot number exists for this hospital
-            java.util.Optional<Product> existingProduct = productRepository.findByCodeAndLotNumberAndSellerId(
-                request.getCode(), request.getLotNumber(), hospitalId);
-            
-            if (existingProduct.isPresent()) {
-                // Update existing product: add to quantity, don't update price
-                Product product = existingProduct.get();
-                int newQuantity = product.getQuantity() + request.getQuantity();
-                product.setQuantity(newQuantity);
-                
-                // Update other fields that might have changed (except price)
-                product.setName(request.getName());
-                product.setManufacturer(request.getManufacturer());
-                product.setExpiryDate(request.getExpiryDate());
-                product.setDescription(request.getDescription());
-                product.setUnit(request.getUnit());
-                
-                Product savedProduct = productRepository.save(product);
-                processedProducts.add(savedProduct);
-                log.info("Updated existing product {} (code: {}, lot: {}), added {} to quantity (new total: {})",
-                    product.getId(), request.getCode(), request.getLotNumber(), 
-                    request.getQuantity(), newQuantity);
-            } else {
-                // Create new product (same code but different lot number is OK)
-                Product product = new Product();
-                product.setName(request.getName());
-                product.setManufacturer(request.getManufacturer());
-                product.setCode(request.getCode());
-                product.setLotNumber(request.getLotNumber());
-                product.setExpiryDate(request.getExpiryDate());
-                product.setDescription(request.getDescription());
-                product.setPrice(request.getPrice());
-                product.setQuantity(request.getQuantity());
-                product.setUnit(request.getUnit());
-                product.setSeller(hospital);
-                
-                Product savedProduct = productRepository.save(product);
-                processedProducts.add(savedProduct);
-                log.info("Created new product (code: {}, lot: {}, qty: {})",
-                    request.getCode(), request.getLotNumber(), request.getQuantity());
-            }
+            String lot = request.getCode() + '\u0000' + request.getLotNumber();
+            lineLots.add(lot);
+            lots.merge(lot, request, (first, next) -> new AddProductRequest(
+                next.getName(), next.getManufacturer(), next.getCode(), next.getLotNumber(), next.getExpiryDate(),
+                next.getDescription(), first.getPrice(), first.getQuantity() + next.getQuantity(), next.getUnit()));
+        }
+        
+        List<String> lotKeys = new ArrayList<>(lots.keySet());
+        List<AddProductRequest> upserts = new ArrayList<>(lots.values());
+        List<ProductUpsertResult> results = productRepository.upsertForSeller(hospitalId, upserts);
+        
+        Map<String, Long> idsByLot = new HashMap<>(lots.size() * 2);
+        List<ProductChange> changes = new ArrayList<>(results.size());
+        int created = 0;
+        for (int i = 0; i < upserts.size(); i++) {
+            ProductUpsertResult result = results.get(i);
+            idsByLot.put(lotKeys.get(i), result.getId());
+            changes.add(new ProductChange(result.getId(), hospitalId,
+                result.isInserted() ? ProductChangeType.CREATED : ProductChangeType.UPDATED));
+            created += result.isInserted() ? 1 : 0;
         }
         
-        log.info("Successfully processed {} products for hospital ID: {}", processedProducts.size(), hospitalId);
+        log.info("Successfully processed {} products for hospital ID: {} ({} created, {} updated)",
+            productRequests.size(), hospitalId, created, results.size() - created);
         
-        return processedProducts.stream()
-            .map(ProductResponse::fromEntity)
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(changes));
+        
+        Map<Long, ProductResponse> productsById = getProductsByIds(idsByLot.values());
+        return lineLots.stream()
+            .map(lot -> productsById.get(idsByLot.get(lot)))
             .collect(Collectors.toList());
     }
     
@@ -117,17 +145,16 @@ public class ProductService {
             throw new ResourceNotFoundException("Hospital profile not found with ID: " + hospitalId);
         }
         
-        return productRepository.findBySellerIdOrderByExpiryDateAsc(hospitalId).stream()
-            .map(ProductResponse::fromEntity)
-            .collect(Collectors.toList());
+        return productRepository.findResponsesBySellerId(hospitalId);
     }
     
     /**
-     * Get product by ID
+     * Get a listed product by ID; expired lots are reported as not found
      */
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long productId) {
         Product product = productRepository.findById(productId)
+            .filter(Product::getListed)
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Product not found with ID: " + productId));
         
@@ -135,19 +162,234 @@ public class ProductService {
     }
     
     /**
-     * Get all products
+     * Get several products by ID in one statement, keyed by ID
+     * Unlisted products are included so carts, offers and order histories can still render expired lots
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ProductResponse> getProductsByIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findResponses(ProductSpecifications.idIn(productIds), Sort.unsorted(), null).stream()
+            .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+    }
+    
+    /**
+     * Deduplicate requested product IDs, keeping request order, and enforce the batch cap
+     */
+    static List<Long> resolveBatchIds(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new BusinessException("At least one product ID is required");
+        }
+        if (productIds.contains(null)) {
+            throw new BusinessException("Product IDs must not be empty");
+        }
+        List<Long> distinctIds = productIds.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new BusinessException("Cannot request more than " + MAX_BATCH_IDS + " products at once");
+        }
+        return distinctIds;
+    }
+    
+    /**
+     * Get one page of marketplace products using keyset pagination
+     * Ordered by the sort key with the product id as tie-breaker; the cursor points after the last row returned
+     * sellerId is optional - when set only that hospital's products are listed; filter narrows the listing further
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse getProductsPage(Long sellerId, ProductFilterRequest filter, ProductSort sort,
+                                               Sort.Direction direction, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        validateFilter(filter);
+        
+        if (sellerId != null && !hospitalProfileRepository.existsById(sellerId)) {
+            throw new ResourceNotFoundException("Hospital profile not found with ID: " + sellerId);
+        }
+        
+        Specification<Product> spec = ProductSpecifications.listed()
+            .and(ProductSpecifications.matches(CatalogFilter.of(filter, sellerId, LocalDateTime.now())));
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(ProductSpecifications.after(ProductCursor.decode(cursor, sort, direction)));
+        }
+        
+        Sort order = sort == ProductSort.ID
+            ? Sort.by(direction, "id")
+            : Sort.by(direction, sort.getProperty()).and(Sort.by(direction, "id"));
+        
+        // Fetch one extra row to know whether another page exists without a count query
+        List<ProductResponse> rows = productRepository.findResponses(spec, order, pageSize + 1);
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ProductResponse last = items.get(items.size() - 1);
+            nextCursor = ProductCursor.after(last.getId(), last.getExpiryDate(), last.getPrice(), sort, direction).encode();
+        }
+        
+        return new ProductPageResponse(items, nextCursor, hasMore, pageSize);
+    }
+    
+    /**
+     * Reject filter combinations that can never match
+     */
+    static void validateFilter(ProductFilterRequest filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getMinPrice() != null && filter.getMinPrice() < 0) {
+            throw new BusinessException("minPrice must not be negative");
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new BusinessException("minPrice must not be greater than maxPrice");
+        }
+        if (filter.getExpiresWithinDays() != null && filter.getExpiresWithinDays() <= 0) {
+            throw new BusinessException("expiresWithinDays must be positive");
+        }
+    }
+    
+    /**
+     * Ranked full-text search over product name, code, manufacturer and description
+     * Supports web-search syntax: quoted phrases, OR, and -exclusions
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchResponse searchProducts(String query, Integer page, Integer size) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new BusinessException("Search query is required");
+        }
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new BusinessException("Search query cannot exceed " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? resolvePageSize(size) : DEFAULT_SEARCH_PAGE_SIZE;
+        if (pageNumber < 0) {
+            throw new BusinessException("Page must be 0 or greater");
+        }
+        // Deep offsets get progressively slower; relevance beyond this point is not useful anyway
+        if ((long) (pageNumber + 1) * pageSize > MAX_SEARCH_RESULTS) {
+            throw new BusinessException("Search results are limited to the first " + MAX_SEARCH_RESULTS + " matches");
+        }
+        
+        String trimmedQuery = query.trim();
+        Slice<Long> ids = productRepository.searchIds(trimmedQuery, PageRequest.of(pageNumber, pageSize));
+        
+        // Load the matched page with sellers in one statement and restore rank order
+        Map<Long, ProductResponse> productsById = productRepository.findResponses(
+                ProductSpecifications.idIn(ids.getContent()), Sort.unsorted(), null).stream()
+            .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        
+        List<ProductResponse> items = ids.getContent().stream()
+            .map(productsById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        
+        log.info("Search '{}' page {} returned {} products", trimmedQuery, pageNumber, items.size());
+        
+        return new ProductSearchResponse(trimmedQuery, items, pageNumber, pageSize, ids.hasNext());
+    }
+    
+    /**
+     * "Did you mean" lookup for a mistyped product code or lot number
+     * Ranked by trigram similarity against both fields; exact matches score 1
+     */
+    @Transactional(readOnly = true)
+    public List<ProductMatchDto> findSimilarProducts(String text, Integer limit) {
+        if (text == null || text.trim().length() < 3) {
+            throw new BusinessException("At least 3 characters are required");
+        }
+        if (text.length() > MAX_SIMILAR_TEXT_LENGTH) {
+            throw new BusinessException("Text cannot exceed " + MAX_SIMILAR_TEXT_LENGTH + " characters");
+        }
+        if (limit != null && limit <= 0) {
+            throw new BusinessException("Limit must be greater than 0");
+        }
+        int maxResults = limit == null ? DEFAULT_SIMILAR_LIMIT : Math.min(limit, MAX_SIMILAR_LIMIT);
+        
+        List<ProductSimilarity> matches = productRepository.findSimilarByCodeOrLotNumber(text.trim(), maxResults);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, ProductResponse> productsById = productRepository.findResponses(
+                ProductSpecifications.idIn(matches.stream().map(ProductSimilarity::getId).collect(Collectors.toList())),
+                Sort.unsorted(), null).stream()
+            .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        
+        return matches.stream()
+            .filter(match -> productsById.containsKey(match.getId()))
+            .map(match -> new ProductMatchDto(productsById.get(match.getId()), match.getScore(), match.getMatchedField()))
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Products changed after a sequence, for clients keeping an offline copy of the catalog
+     * Start with since=0, then pass nextSince (and nextAfterId while hasMore) back on the next call.
+     * Listed rows come back as products, unlisted or deleted ones as tombstones; cost is proportional to churn.
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-            .map(ProductResponse::fromEntity)
+    public ProductChangesResponse getChangesSince(Long since, Long afterId, Integer size) {
+        if (since == null || since < 0) {
+            throw new BusinessException("since must be 0 or greater");
+        }
+        if (size != null && size <= 0) {
+            throw new BusinessException("Page size must be greater than 0");
+        }
+        int pageSize = size == null ? DEFAULT_CHANGES_PAGE_SIZE : Math.min(size, MAX_CHANGES_PAGE_SIZE);
+        
+        // Taken first: everything below it has finished, so nothing can still commit behind the returned sequence
+        long watermark = productRepository.findChangeWatermark();
+        List<ProductChangeKey> keys = productRepository.findChangesSince(
+            since, afterId != null ? afterId : Long.MAX_VALUE, watermark, pageSize + 1);
+        
+        boolean hasMore = keys.size() > pageSize;
+        List<ProductChangeKey> page = hasMore ? keys.subList(0, pageSize) : keys;
+        
+        List<Long> changedIds = page.stream()
+            .filter(key -> !key.getRemoved())
+            .map(ProductChangeKey::getId)
             .collect(Collectors.toList());
+        Map<Long, ProductResponse> productsById = changedIds.isEmpty() ? Map.of() : productRepository.findResponses(
+                ProductSpecifications.listed().and(ProductSpecifications.idIn(changedIds)), Sort.unsorted(), null).stream()
+            .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        
+        List<ProductResponse> products = new ArrayList<>();
+        List<Long> tombstones = new ArrayList<>();
+        for (ProductChangeKey key : page) {
+            ProductResponse product = key.getRemoved() ? null : productsById.get(key.getId());
+            if (product != null) {
+                products.add(product);
+            } else {
+                // Unlisted or deleted - possibly just now, in which case it is reported again later anyway
+                tombstones.add(key.getId());
+            }
+        }
+        
+        if (hasMore) {
+            ProductChangeKey last = page.get(page.size() - 1);
+            return new ProductChangesResponse(products, tombstones, last.getSequence(), last.getId(), true);
+        }
+        // Caught up: every change below the watermark has been returned
+        return new ProductChangesResponse(products, tombstones, Math.max(since, watermark - 1), null, false);
+    }
+    
+    /**
+     * Resolve requested page size, applying default and upper bound
+     */
+    static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size <= 0) {
+            throw new BusinessException("Page size must be greater than 0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
     }
     
     /**
      * Validate product request
      */
-    private void validateProductRequest(AddProductRequest request) {
+    void validateProductRequest(AddProductRequest request) {
         if (request.getName() == null || request.getName().trim().isEmpty()) {
             throw new BusinessException("Product name is required");
         }
@@ -189,7 +431,7 @@ public class ProductService {
     /**
      * Add product to shopping cart
      * User must own a hospital
-     * Quantity must be available (including any quantity already in cart)
+     * Quantity must be available, i.e. not held by other carts or open orders (including any quantity already in cart)
      */
     @Transactional
     public ShoppingCartResponse addToCart(AddToCartRequest request, UUID userId) {
@@ -209,6 +451,11 @@ public class ProductService {
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Product not found with ID: " + request.getProductId()));
         
+        // Expired lots can't be sold, even in the short window before the expiry scheduler unlists them
+        if (!product.getListed() || !product.getExpiryDate().isAfter(LocalDateTime.now())) {
+            throw new BusinessException("Product " + product.getId() + " has expired and is no longer available");
+        }
+        
         // Find user's hospital
         HospitalProfile hospital = hospitalProfileRepository.findByOwnerId(userId)
             .orElseThrow(() -> new ResourceNotFoundException(
@@ -216,30 +463,112 @@ public class ProductService {
         
         // Check if product already exists in cart and get current quantity
         int existingQuantityInCart = 0;
-        Optional<ShoppingCart> cartOptional = shoppingCartRepository.findByHospitalId(hospital.getId());
+        int heldByCart = 0;
+        // The cart is loaded with its items here and reused from the persistence context by ShopService
+        Optional<ShoppingCart> cartOptional = shoppingCartRepository.findWithItemsByHospitalId(hospital.getId());
         if (cartOptional.isPresent()) {
-            Optional<ShopItem> existingItem = shopItemRepository.findByShoppingCartIdAndProductIdAndType(
-                cartOptional.get().getId(),
-                product.getId(),
-                ShopItemType.SINGLE
-            );
+            Optional<ShopItem> existingItem = cartOptional.get().findSingleItem(product.getId());
             if (existingItem.isPresent()) {
                 existingQuantityInCart = existingItem.get().getQuantity();
+                heldByCart = stockReservationService.heldByCartItems(List.of(existingItem.get().getId()))
+                    .getOrDefault(existingItem.get().getId(), 0);
                 log.info("Product {} already in cart with quantity {}", product.getId(), existingQuantityInCart);
             }
         }
         
-        // Validate total quantity (existing in cart + new) against available quantity
+        // Validate total quantity (existing in cart + new) against what other carts and orders don't hold
+        int availableQuantity = product.getAvailableQuantity() + heldByCart;
         int totalRequestedQuantity = existingQuantityInCart + request.getQuantity();
-        if (totalRequestedQuantity > product.getQuantity()) {
+        if (totalRequestedQuantity > availableQuantity) {
             throw new BusinessException(
                 "Total requested quantity (" + totalRequestedQuantity + 
-                ") exceeds available quantity (" + product.getQuantity() + ")" +
+                ") exceeds available quantity (" + availableQuantity + ")" +
                 (existingQuantityInCart > 0 ? ". You already have " + existingQuantityInCart + " in your cart." : ""));
         }
         
         // Add product to cart via ShopService
         return shopService.addProductToCart(hospital.getId(), product, request.getQuantity(), userId);
     }
+    
+    /**
+     * Add several products to shopping cart in one transaction
+     * Products and the cart's existing items are loaded in one query each and all lines are validated before
+     * anything is written; errors for every failing line are reported together.
+     */
+    @Transactional
+    public ShoppingCartResponse addToCartBatch(AddToCartBatchRequest request, UUID userId) {
+        List<AddToCartRequest> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("At least one item is required");
+        }
+        if (items.size() > MAX_CART_BATCH_SIZE) {
+            throw new BusinessException("Cannot add more than " + MAX_CART_BATCH_SIZE + " items at once");
+        }
+        log.info("User {} adding {} items to cart", userId, items.size());
+        
+        // Validate request; repeated products are added up
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (AddToCartRequest item : items) {
+            if (item.getProductId() == null) {
+                throw new BusinessException("Product ID is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BusinessException("Quantity must be greater than 0 for product " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        // Find the products, with their sellers for the response
+        Map<Long, Product> productsById = productRepository.findWithSellerByIdIn(quantities.keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Long> missing = quantities.keySet().stream()
+            .filter(id -> !productsById.containsKey(id))
+            .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Products not found with IDs: " + missing);
+        }
+        
+        // Find user's hospital
+        HospitalProfile hospital = hospitalProfileRepository.findByOwnerId(userId)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                "No hospital profile found for user ID: " + userId));
+        
+        // The cart is loaded with its items here and reused from the persistence context by ShopService
+        Optional<ShoppingCart> cartOptional = shoppingCartRepository.findWithItemsByHospitalId(hospital.getId());
+        
+        // Units the cart's own items already hold count as available to it
+        Map<Long, ShopItem> existingItems = new HashMap<>();
+        cartOptional.ifPresent(cart -> quantities.keySet().forEach(productId ->
+            cart.findSingleItem(productId).ifPresent(item -> existingItems.put(productId, item))));
+        Map<Long, Integer> heldByItem = stockReservationService.heldByCartItems(
+            existingItems.values().stream().map(ShopItem::getId).collect(Collectors.toList()));
+        
+        // Validate every line against availability (including any quantity already in cart)
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(quantities.size());
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = productsById.get(entry.getKey());
+            products.add(product);
+            if (!product.getListed() || !product.getExpiryDate().isAfter(now)) {
+                errors.add("Product " + product.getId() + " has expired and is no longer available");
+                continue;
+            }
+            ShopItem existingItem = existingItems.get(product.getId());
+            int existingQuantityInCart = existingItem != null ? existingItem.getQuantity() : 0;
+            int availableQuantity = product.getAvailableQuantity() +
+                (existingItem != null ? heldByItem.getOrDefault(existingItem.getId(), 0) : 0);
+            int totalRequestedQuantity = existingQuantityInCart + entry.getValue();
+            if (totalRequestedQuantity > availableQuantity) {
+                errors.add("Product " + product.getId() + ": total requested quantity (" + totalRequestedQuantity +
+                    ") exceeds available quantity (" + availableQuantity + ")");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BusinessException(String.join("; ", errors));
+        }
+        
+        return shopService.addProductsToCart(hospital.getId(), products, quantities, userId);
+    }
 }
 
@@ -0,0 +1,115 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.catalog.CatalogEntry;
+import com.kelox.backend.catalog.SuggestionIndex;
+import com.kelox.backend.dto.ProductSuggestionDto;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the typeahead index in sync with the listed products
+ * Built on startup, patched after every committed product write and rebuilt on a fixed interval
+ * to pick up writes made by other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestionService {
+    
+    private final CatalogLoader catalogLoader;
+    
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+    private volatile boolean loaded;
+    
+    /**
+     * Suggest product names, codes and manufacturers starting with the prefix
+     */
+    public List<ProductSuggestionDto> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new BusinessException("Prefix is required");
+        }
+        if (prefix.length() > SuggestionIndex.MAX_KEY_LENGTH) {
+            throw new BusinessException("Prefix cannot exceed " + SuggestionIndex.MAX_KEY_LENGTH + " characters");
+        }
+        if (limit != null && limit <= 0) {
+            throw new BusinessException("Limit must be greater than 0");
+        }
+        
+        ensureLoaded();
+        int maxResults = limit == null ? SuggestionIndex.MAX_SUGGESTIONS : Math.min(limit, SuggestionIndex.MAX_SUGGESTIONS);
+        return suggestionIndex.suggest(prefix, maxResults);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            // Retried lazily by the first suggestion request
+            log.error("Failed to build suggestion index on startup: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Scheduled(
+        fixedDelayString = "${marketplace.catalog.suggestions.refresh-interval-ms:300000}",
+        initialDelayString = "${marketplace.catalog.suggestions.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild suggestion index: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Patch the index with products written by a committed transaction
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductsChanged(ProductCatalogChangedEvent event) {
+        if (!loaded || event.getChanges().isEmpty()) {
+            return;
+        }
+        try {
+            Set<Long> productIds = event.getProductIds();
+            List<CatalogEntry> upserts = catalogLoader.loadByIds(productIds);
+            
+            Set<Long> removed = new HashSet<>(productIds);
+            upserts.forEach(entry -> removed.remove(entry.getId()));
+            
+            suggestionIndex.apply(upserts, removed);
+        } catch (RuntimeException e) {
+            // The periodic rebuild will converge
+            log.error("Failed to patch suggestion index for products {}: {}", event.getProductIds(), e.getMessage(), e);
+        }
+    }
+    
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+    
+    private synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        suggestionIndex.replaceAll(catalogLoader.loadAll());
+        loaded = true;
+        log.info("Suggestion index built with {} terms in {} ms",
+            suggestionIndex.termCount(), System.currentTimeMillis() - startedAt);
+    }
+}
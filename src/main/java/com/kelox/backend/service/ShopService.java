@@ -27,7 +27,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -41,6 +43,8 @@ public class ShopService {
     private final HospitalProfileRepository hospitalProfileRepository;
     private final DeliveryAddressRepository deliveryAddressRepository;
     private final OrderRepository orderRepository;
+    private final StockReservationService stockReservationService;
+    private final OrderEventService orderEventService;
     
     /**
      * Add all products from an accepted offer to the creator's hospital shopping cart
@@ -70,6 +74,7 @@ public class ShopService {
         
         // Add each offer product to the shopping cart
         // Always create new items for offers (each offer is tracked separately)
+        List<ShopItem> newItems = new ArrayList<>();
         for (OfferProduct offerProduct : offer.getOfferProducts()) {
             ShopItem newItem = new ShopItem();
             newItem.setShoppingCart(shoppingCart);
@@ -79,10 +84,14 @@ public class ShopService {
             newItem.setType(ShopItemType.OFFER);
             newItem.setOffer(offer);
             shopItemRepository.save(newItem);
+            newItems.add(newItem);
             log.info("Added new OFFER shop item for product {} to cart (qty: {}, offerId: {})", 
                 offerProduct.getProduct().getId(), newItem.getQuantity(), offer.getId());
         }
         
+        // Hold the offered stock for the buyer
+        stockReservationService.holdCartItems(newItems);
+        
         log.info("Successfully added all products from offer {} to creator's hospital {} shopping cart", 
             offer.getId(), creatorHospital.getId());
     }
@@ -95,19 +104,11 @@ public class ShopService {
     public ShoppingCartResponse getShoppingCartForHospital(Long hospitalId, UUID userId) {
         log.info("Fetching shopping cart for hospital {} by user {}", hospitalId, userId);
         
-        // Find the hospital
-        HospitalProfile hospital = hospitalProfileRepository.findById(hospitalId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                "Hospital profile not found with ID: " + hospitalId));
-        
         // Verify the user is the hospital owner
-        if (hospital.getOwner() == null || !hospital.getOwner().getId().equals(userId)) {
-            throw new BusinessException(
-                "User is not authorized to access this hospital's shopping cart");
-        }
+        requireOwner(hospitalId, userId, "User is not authorized to access this hospital's shopping cart");
         
-        // Get shopping cart for the hospital
-        ShoppingCart shoppingCart = shoppingCartRepository.findByHospitalId(hospitalId)
+        // Get shopping cart for the hospital, with its items, products and sellers
+        ShoppingCart shoppingCart = shoppingCartRepository.findWithItemsByHospitalId(hospitalId)
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Shopping cart not found for hospital ID: " + hospitalId));
         
@@ -122,36 +123,25 @@ public class ShopService {
     public ShoppingCartResponse addProductToCart(Long hospitalId, Product product, Integer quantity, UUID userId) {
         log.info("Adding product {} (qty: {}) to cart for hospital {} by user {}", product.getId(), quantity, hospitalId, userId);
         
-        // Find the hospital
-        HospitalProfile hospital = hospitalProfileRepository.findById(hospitalId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                "Hospital profile not found with ID: " + hospitalId));
-        
         // Verify the user is the hospital owner
-        if (hospital.getOwner() == null || !hospital.getOwner().getId().equals(userId)) {
-            throw new BusinessException(
-                "User is not authorized to manage this hospital's shopping cart");
-        }
+        requireOwner(hospitalId, userId, "User is not authorized to manage this hospital's shopping cart");
         
-        // Get or create shopping cart for the hospital
-        ShoppingCart shoppingCart = shoppingCartRepository.findByHospitalId(hospitalId)
+        // Get or create shopping cart for the hospital, with its items, products and sellers
+        ShoppingCart shoppingCart = shoppingCartRepository.findWithItemsByHospitalId(hospitalId)
             .orElseGet(() -> {
                 log.warn("Shopping cart not found for hospital {}, creating new one", hospitalId);
                 ShoppingCart newCart = new ShoppingCart();
-                newCart.setHospital(hospital);
+                newCart.setHospital(hospitalProfileRepository.getReferenceById(hospitalId));
                 return shoppingCartRepository.save(newCart);
             });
         
         // Check if a SINGLE type item already exists for this product
-        Optional<ShopItem> existingItem = shopItemRepository.findByShoppingCartIdAndProductIdAndType(
-            shoppingCart.getId(), 
-            product.getId(),
-            ShopItemType.SINGLE
-        );
+        Optional<ShopItem> existingItem = shoppingCart.findSingleItem(product.getId());
         
+        ShopItem item;
         if (existingItem.isPresent()) {
             // Update existing SINGLE item: add quantity
-            ShopItem item = existingItem.get();
+            item = existingItem.get();
             item.setQuantity(item.getQuantity() + quantity);
             item.setPrice(product.getPrice()); // Update to current price
             shopItemRepository.save(item);
@@ -165,14 +155,72 @@ public class ShopService {
             newItem.setPrice(product.getPrice());
             newItem.setType(ShopItemType.SINGLE);
             newItem.setOffer(null);
-            shopItemRepository.save(newItem);
+            shoppingCart.addItem(newItem);
+            item = shopItemRepository.save(newItem);
             log.info("Added new SINGLE shop item for product {} to cart (qty: {})", product.getId(), quantity);
         }
         
+        // Hold the item's stock; fails if other buyers hold the remaining units
+        stockReservationService.holdCartItems(List.of(item));
+        
         // Return updated cart
         return ShoppingCartResponse.fromEntity(shoppingCart);
     }
     
+    /**
+     * Add several products to shopping cart; quantities are keyed by product ID
+     * Existing SINGLE items are updated and new ones created, written in JDBC batches when the transaction flushes
+     */
+    @Transactional
+    public ShoppingCartResponse addProductsToCart(Long hospitalId, List<Product> products, Map<Long, Integer> quantities,
+                                                  UUID userId) {
+        log.info("Adding {} products to cart for hospital {} by user {}", products.size(), hospitalId, userId);
+        
+        // Verify the user is the hospital owner
+        requireOwner(hospitalId, userId, "User is not authorized to manage this hospital's shopping cart");
+        
+        // Get or create shopping cart for the hospital, with its items, products and sellers
+        ShoppingCart shoppingCart = shoppingCartRepository.findWithItemsByHospitalId(hospitalId)
+            .orElseGet(() -> {
+                log.warn("Shopping cart not found for hospital {}, creating new one", hospitalId);
+                ShoppingCart newCart = new ShoppingCart();
+                newCart.setHospital(hospitalProfileRepository.getReferenceById(hospitalId));
+                return shoppingCartRepository.save(newCart);
+            });
+        
+        List<ShopItem> newItems = new ArrayList<>();
+        List<ShopItem> touchedItems = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Integer quantity = quantities.get(product.getId());
+            Optional<ShopItem> existingItem = shoppingCart.findSingleItem(product.getId());
+            if (existingItem.isPresent()) {
+                // Managed entity: the update is flushed with the others
+                ShopItem item = existingItem.get();
+                item.setQuantity(item.getQuantity() + quantity);
+                item.setPrice(product.getPrice()); // Update to current price
+                touchedItems.add(item);
+            } else {
+                ShopItem newItem = new ShopItem();
+                newItem.setProduct(product);
+                newItem.setQuantity(quantity);
+                newItem.setPrice(product.getPrice());
+                newItem.setType(ShopItemType.SINGLE);
+                newItem.setOffer(null);
+                shoppingCart.addItem(newItem);
+                newItems.add(newItem);
+                touchedItems.add(newItem);
+            }
+        }
+        shopItemRepository.saveAll(newItems);
+        
+        // Hold the items' stock; fails if other buyers hold the remaining units
+        stockReservationService.holdCartItems(touchedItems);
+        log.info("Cart for hospital {}: {} SINGLE items added, {} updated",
+            hospitalId, newItems.size(), products.size() - newItems.size());
+        
+        return ShoppingCartResponse.fromEntity(shoppingCart);
+    }
+    
     /**
      * Remove item(s) from shopping cart
      * SINGLE type: removes only the specified item
@@ -182,16 +230,8 @@ public class ShopService {
     public void removeItemFromCart(Long hospitalId, Long itemId, UUID userId) {
         log.info("Removing item {} from cart for hospital {} by user {}", itemId, hospitalId, userId);
         
-        // Find the hospital
-        HospitalProfile hospital = hospitalProfileRepository.findById(hospitalId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                "Hospital profile not found with ID: " + hospitalId));
-        
         // Verify the user is the hospital owner
-        if (hospital.getOwner() == null || !hospital.getOwner().getId().equals(userId)) {
-            throw new BusinessException(
-                "User is not authorized to manage this hospital's shopping cart");
-        }
+        requireOwner(hospitalId, userId, "User is not authorized to manage this hospital's shopping cart");
         
         // Find the shop item
         ShopItem shopItem = shopItemRepository.findById(itemId)
@@ -207,6 +247,7 @@ public class ShopService {
         // Check type and remove accordingly
         if (shopItem.getType() == ShopItemType.SINGLE) {
             // Remove only this item
+            stockReservationService.releaseCartItems(List.of(itemId));
             shopItemRepository.delete(shopItem);
             log.info("Removed SINGLE shop item {} from cart", itemId);
         } else if (shopItem.getType() == ShopItemType.OFFER) {
@@ -217,11 +258,25 @@ public class ShopService {
             
             UUID offerId = shopItem.getOffer().getId();
             List<ShopItem> offerItems = shopItemRepository.findByOfferId(offerId);
+            stockReservationService.releaseCartItems(offerItems.stream().map(ShopItem::getId).toList());
             shopItemRepository.deleteAll(offerItems);
             log.info("Removed {} OFFER items (offerId: {}) from cart", offerItems.size(), offerId);
         }
     }
     
+    /**
+     * Ownership check without loading the hospital and its owner
+     */
+    private void requireOwner(Long hospitalId, UUID userId, String message) {
+        if (hospitalProfileRepository.existsByIdAndOwnerId(hospitalId, userId)) {
+            return;
+        }
+        if (!hospitalProfileRepository.existsById(hospitalId)) {
+            throw new ResourceNotFoundException("Hospital profile not found with ID: " + hospitalId);
+        }
+        throw new BusinessException(message);
+    }
+    
     /**
      * Request delivery price - creates an order from shopping cart
      * User must own a hospital and have items in cart
@@ -290,8 +345,12 @@ public class ShopService {
         }
         
         // Save order
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = orderRepository.saveAndFlush(order);
         log.info("Order created with ID: {} for hospital {}", savedOrder.getId(), hospital.getId());
+        orderEventService.recordCreated(savedOrder, OrderEventService.userActor(userId));
+        
+        // The order now holds the cart's stock; fails if a lapsed hold can't be renewed
+        stockReservationService.convertCartHolds(shoppingCart.getItems(), savedOrder.getId());
         
         // Clear shopping cart
         shoppingCart.clearItems();
@@ -0,0 +1,206 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.config.ReservationConfig;
+import com.kelox.backend.entity.ShopItem;
+import com.kelox.backend.entity.StockReservation;
+import com.kelox.backend.enums.ProductChangeType;
+import com.kelox.backend.event.ProductCatalogChangedEvent;
+import com.kelox.backend.event.ProductChange;
+import com.kelox.backend.exception.BusinessException;
+import com.kelox.backend.repository.ShopItemRepository;
+import com.kelox.backend.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Time-limited holds on product stock
+ * Every cart item holds its quantity of the product for a short TTL, renewed whenever the cart changes; at checkout
+ * the holds move to the order with a longer TTL and are released when the order is paid (the stock is then
+ * decremented) or canceled. Expired holds are released by a background sweep. The product's reserved_quantity
+ * counter always equals the sum of its holds, so available-to-sell is read from the product row alone.
+ * Every change to a product's holds is published as a quantity change, since listings show available quantity.
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+    
+    private static final int SWEEP_BATCH_SIZE = 1000;
+    
+    private final StockReservationRepository stockReservationRepository;
+    private final ShopItemRepository shopItemRepository;
+    private final ReservationConfig reservationConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    public StockReservationService(StockReservationRepository stockReservationRepository,
+                                   ShopItemRepository shopItemRepository,
+                                   ReservationConfig reservationConfig,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.shopItemRepository = shopItemRepository;
+        this.reservationConfig = reservationConfig;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Hold each item's full quantity and renew the TTL, reserving only what is not held yet
+     * Throws if a product does not have enough available; the caller's transaction then rolls back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void holdCartItems(Collection<ShopItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        // New items must exist before holds can reference them
+        shopItemRepository.flush();
+        
+        Map<Long, Integer> held = stockReservationRepository.lockCartHolds(
+            items.stream().map(ShopItem::getId).collect(Collectors.toList()));
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(reservationConfig.getCartTtlMs(), ChronoUnit.MILLIS);
+        Map<Long, Integer> toReserve = new HashMap<>();
+        Map<Long, Integer> toRelease = new HashMap<>();
+        List<StockReservation> holds = new ArrayList<>(items.size());
+        for (ShopItem item : items) {
+            Long productId = item.getProduct().getId();
+            int difference = item.getQuantity() - held.getOrDefault(item.getId(), 0);
+            if (difference > 0) {
+                toReserve.merge(productId, difference, Integer::sum);
+            } else if (difference < 0) {
+                toRelease.merge(productId, -difference, Integer::sum);
+            }
+            holds.add(new StockReservation(null, productId, item.getId(), null, item.getQuantity(), expiresAt, null));
+        }
+        
+        if (!toRelease.isEmpty()) {
+            stockReservationRepository.subtractReserved(toRelease);
+        }
+        if (!toReserve.isEmpty()) {
+            List<Long> unavailable = stockReservationRepository.addReserved(toReserve);
+            if (!unavailable.isEmpty()) {
+                throw new BusinessException("Not enough stock available for products " + unavailable +
+                    "; the remaining units are held by other buyers");
+            }
+        }
+        stockReservationRepository.saveCartHolds(holds);
+        
+        Set<Long> changed = new HashSet<>(toReserve.keySet());
+        changed.addAll(toRelease.keySet());
+        publishQuantityChanged(changed);
+        log.info("Holding stock for {} cart items until {}", items.size(), expiresAt);
+    }
+    
+    /**
+     * Units held by each cart item, expired or not; they count towards the product's reserved quantity until released
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> heldByCartItems(Collection<Long> shopItemIds) {
+        if (shopItemIds.isEmpty()) {
+            return Map.of();
+        }
+        return stockReservationRepository.findByShopItemIdIn(shopItemIds).stream()
+            .collect(Collectors.toMap(StockReservation::getShopItemId, StockReservation::getQuantity));
+    }
+    
+    /**
+     * Move the holds of checked-out cart items to the order, re-reserving any that expired meanwhile
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void convertCartHolds(Collection<ShopItem> items, UUID orderId) {
+        holdCartItems(items);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(reservationConfig.getOrderTtlMs(), ChronoUnit.MILLIS);
+        int converted = stockReservationRepository.convertCartHolds(
+            items.stream().map(ShopItem::getId).collect(Collectors.toList()), orderId, expiresAt);
+        log.info("Converted {} cart holds to order {} until {}", converted, orderId, expiresAt);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseCartItems(Collection<Long> shopItemIds) {
+        publishQuantityChanged(release(stockReservationRepository.deleteByShopItemIds(shopItemIds)));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseOrder(UUID orderId) {
+        List<StockReservation> holds = stockReservationRepository.deleteByOrder(orderId);
+        publishQuantityChanged(release(holds));
+        log.info("Released {} stock holds of order {}", holds.size(), orderId);
+    }
+    
+    /**
+     * Release expired holds in batches, each in its own transaction
+     * Instances sweeping at the same time skip each other's locked rows. Changed products are published once per
+     * sweep, after the batches that released them have committed.
+     */
+    @Scheduled(fixedDelayString = "${marketplace.reservations.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> changed = new HashSet<>();
+        int total = 0;
+        try {
+            int released;
+            do {
+                List<StockReservation> holds = transactionTemplate.execute(status -> {
+                    List<StockReservation> expired = stockReservationRepository.deleteExpired(now, SWEEP_BATCH_SIZE);
+                    release(expired);
+                    return expired;
+                });
+                holds.forEach(hold -> changed.add(hold.getProductId()));
+                released = holds.size();
+                total += released;
+            } while (released == SWEEP_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // The next sweep retries
+            log.error("Failed to release expired stock holds: {}", e.getMessage(), e);
+        }
+        if (total > 0) {
+            publishQuantityChanged(changed);
+            log.info("Released {} expired stock holds of {} products", total, changed.size());
+        }
+    }
+    
+    /**
+     * @return IDs of the products whose reserved quantity went down
+     */
+    private Set<Long> release(List<StockReservation> holds) {
+        if (holds.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        holds.forEach(hold -> quantities.merge(hold.getProductId(), hold.getQuantity(), Integer::sum));
+        stockReservationRepository.subtractReserved(quantities);
+        return quantities.keySet();
+    }
+    
+    /**
+     * Listeners run after the surrounding transaction commits, or immediately outside one
+     */
+    private void publishQuantityChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<ProductChange> changes = new ArrayList<>(productIds.size());
+        stockReservationRepository.findSellerIds(productIds).forEach((productId, sellerId) ->
+            changes.add(new ProductChange(productId, sellerId, ProductChangeType.QUANTITY_CHANGED)));
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(changes));
+    }
+}
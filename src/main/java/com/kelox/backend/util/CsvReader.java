@@ -0,0 +1,104 @@
+package com.kelox.backend.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: one record at a time, so files of any size use constant memory
+ * Handles quoted fields with embedded commas, quotes and line breaks, and both LF and CRLF line endings.
+ */
+public final class CsvReader implements Closeable {
+    
+    public static final int MAX_RECORD_LENGTH = 64 * 1024;
+    
+    private final Reader reader;
+    private int lineNumber = 1;
+    private int recordLineNumber;
+    
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * Next record's fields, or null at end of input
+     * @throws IOException on read failure or a record longer than MAX_RECORD_LENGTH (e.g. an unclosed quote)
+     */
+    public List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLineNumber = lineNumber;
+        
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (c == -1) {
+                fields.add(field.toString());
+                return fields;
+            }
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new IOException("Line " + recordLineNumber + " is longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+            
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                    field.append('"');
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+    
+    /**
+     * 1-based line on which the record last returned by {@link #readRecord()} started
+     */
+    public int getRecordLineNumber() {
+        return recordLineNumber;
+    }
+    
+    /**
+     * Quote a value for writing if it contains a separator, quote or line break
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,249 @@
+package com.kelox.backend.util;
+
+import com.kelox.backend.exception.BusinessException;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Decoded GS1 element string as printed on medical product labels (DataMatrix, GS1-128, QR)
+ * Accepts scanner output - optional symbology identifier such as ]d2, FNC1 sent as the GS character -
+ * as well as the human-readable form with parenthesized application identifiers, e.g.
+ * (01)09506000134352(17)261231(10)A1B2C3. Parsing is a single pass over the input with no regular
+ * expressions or intermediate strings; only the extracted values are allocated.
+ */
+@Getter
+public final class Gs1ElementString {
+
+    public static final char GROUP_SEPARATOR = '\u001D';
+
+    private static final int MAX_LOT_LENGTH = 20;
+    private static final int MAX_SERIAL_LENGTH = 20;
+    private static final int MAX_COUNT_LENGTH = 8;
+
+    // Application identifier length and predefined data length by the AI's first two digits (0 = unknown / variable)
+    private static final int[] AI_LENGTH = new int[100];
+    private static final int[] FIXED_DATA_LENGTH = new int[100];
+
+    static {
+        for (int prefix : new int[]{0, 1, 2, 3, 4, 10, 11, 12, 13, 15, 16, 17, 20, 21, 22, 30, 37,
+                                    90, 91, 92, 93, 94, 95, 96, 97, 98, 99}) {
+            AI_LENGTH[prefix] = 2;
+        }
+        for (int prefix : new int[]{23, 24, 25, 40, 41, 42, 71}) {
+            AI_LENGTH[prefix] = 3;
+        }
+        for (int prefix : new int[]{31, 32, 33, 34, 35, 36, 39, 43, 70, 72, 80, 81, 82}) {
+            AI_LENGTH[prefix] = 4;
+        }
+
+        FIXED_DATA_LENGTH[0] = 18;
+        FIXED_DATA_LENGTH[1] = 14;
+        FIXED_DATA_LENGTH[2] = 14;
+        FIXED_DATA_LENGTH[3] = 14;
+        FIXED_DATA_LENGTH[4] = 16;
+        for (int prefix = 11; prefix <= 19; prefix++) {
+            FIXED_DATA_LENGTH[prefix] = 6;
+        }
+        FIXED_DATA_LENGTH[20] = 2;
+        for (int prefix = 31; prefix <= 36; prefix++) {
+            FIXED_DATA_LENGTH[prefix] = 6;
+        }
+        FIXED_DATA_LENGTH[41] = 13;
+    }
+
+    private final String gtin;  // (01), 14 digits with a valid check digit
+    private final LocalDate expiryDate;  // (17)
+    private final String lotNumber;  // (10)
+    private final String serialNumber;  // (21)
+    private final Integer count;  // (30) or (37); null when absent
+
+    private Gs1ElementString(String gtin, LocalDate expiryDate, String lotNumber, String serialNumber, Integer count) {
+        this.gtin = gtin;
+        this.expiryDate = expiryDate;
+        this.lotNumber = lotNumber;
+        this.serialNumber = serialNumber;
+        this.count = count;
+    }
+
+    public static Gs1ElementString parse(String raw) {
+        return parse(raw, LocalDate.now().getYear());
+    }
+
+    /**
+     * Parse an element string; currentYear resolves two-digit years as the GS1 General Specifications define
+     * Unknown but well-formed application identifiers are skipped.
+     */
+    public static Gs1ElementString parse(String raw, int currentYear) {
+        if (raw == null || raw.isBlank()) {
+            throw new BusinessException("Barcode is empty");
+        }
+
+        int pos = 0;
+        int end = raw.length();
+        while (end > 0 && isTrailingNoise(raw.charAt(end - 1))) {
+            end--;
+        }
+        if (raw.charAt(0) == ']') {
+            pos = 3;  // Symbology identifier, e.g. ]d2, ]C1, ]Q3
+        }
+        boolean parenthesized = pos < end && raw.charAt(pos) == '(';
+
+        String gtin = null;
+        LocalDate expiryDate = null;
+        String lotNumber = null;
+        String serialNumber = null;
+        Integer count = null;
+
+        while (pos < end) {
+            char c = raw.charAt(pos);
+            if (c == GROUP_SEPARATOR) {
+                pos++;
+                continue;
+            }
+
+            // Application identifier
+            int ai;
+            int aiLength;
+            if (parenthesized) {
+                if (c != '(') {
+                    throw invalid("expected '(' at position " + pos);
+                }
+                int close = raw.indexOf(')', pos + 1);
+                if (close < 0 || close - pos - 1 < 2 || close - pos - 1 > 4) {
+                    throw invalid("malformed application identifier at position " + pos);
+                }
+                aiLength = close - pos - 1;
+                ai = digits(raw, pos + 1, close);
+                pos = close + 1;
+            } else {
+                if (pos + 2 > end) {
+                    throw invalid("truncated application identifier");
+                }
+                aiLength = AI_LENGTH[digits(raw, pos, pos + 2)];
+                if (aiLength == 0 || pos + aiLength > end) {
+                    throw invalid("unsupported application identifier at position " + pos);
+                }
+                ai = digits(raw, pos, pos + aiLength);
+                pos += aiLength;
+            }
+
+            // Data field: predefined length, otherwise up to the next separator
+            int prefix = aiLength == 2 ? ai : aiLength == 3 ? ai / 10 : ai / 100;
+            int fixed = FIXED_DATA_LENGTH[prefix];
+            int dataEnd;
+            if (fixed > 0) {
+                dataEnd = pos + fixed;
+                if (dataEnd > end) {
+                    throw invalid("(" + pad(ai, aiLength) + ") must be " + fixed + " characters");
+                }
+            } else {
+                dataEnd = pos;
+                while (dataEnd < end && raw.charAt(dataEnd) != GROUP_SEPARATOR
+                        && !(parenthesized && raw.charAt(dataEnd) == '(')) {
+                    dataEnd++;
+                }
+            }
+
+            if (aiLength == 2) {
+                switch (ai) {
+                    case 1 -> gtin = gtin(raw, pos, dataEnd);
+                    case 17 -> expiryDate = date(raw, pos, currentYear);
+                    case 10 -> lotNumber = text(raw, pos, dataEnd, MAX_LOT_LENGTH, "(10) lot number");
+                    case 21 -> serialNumber = text(raw, pos, dataEnd, MAX_SERIAL_LENGTH, "(21) serial number");
+                    case 30, 37 -> {
+                        if (dataEnd == pos || dataEnd - pos > MAX_COUNT_LENGTH) {
+                            throw invalid("(" + pad(ai, 2) + ") count must be 1 to " + MAX_COUNT_LENGTH + " digits");
+                        }
+                        count = digits(raw, pos, dataEnd);
+                    }
+                    default -> {
+                        // Not needed for stock intake
+                    }
+                }
+            }
+            pos = dataEnd;
+        }
+
+        return new Gs1ElementString(gtin, expiryDate, lotNumber, serialNumber, count);
+    }
+
+    private static String gtin(String raw, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to - 1; i++) {
+            // Weights alternate 3, 1, 3, ... starting from the leftmost of 13 digits
+            sum += digit(raw, i) * ((i - from) % 2 == 0 ? 3 : 1);
+        }
+        if ((10 - sum % 10) % 10 != digit(raw, to - 1)) {
+            throw invalid("(01) GTIN check digit does not match");
+        }
+        return raw.substring(from, to);
+    }
+
+    /**
+     * YYMMDD; day 00 means the last day of the month
+     */
+    private static LocalDate date(String raw, int from, int currentYear) {
+        int yy = digits(raw, from, from + 2);
+        int month = digits(raw, from + 2, from + 4);
+        int day = digits(raw, from + 4, from + 6);
+        if (month < 1 || month > 12) {
+            throw invalid("(17) expiry month must be 01 to 12");
+        }
+
+        // Within 49 years back and 50 years ahead of the current year
+        int century = currentYear / 100 * 100;
+        int difference = yy - currentYear % 100;
+        if (difference >= 51) {
+            century -= 100;
+        } else if (difference <= -50) {
+            century += 100;
+        }
+
+        YearMonth yearMonth = YearMonth.of(century + yy, month);
+        if (day == 0) {
+            return yearMonth.atEndOfMonth();
+        }
+        if (day > yearMonth.lengthOfMonth()) {
+            throw invalid("(17) expiry day does not exist");
+        }
+        return yearMonth.atDay(day);
+    }
+
+    private static String text(String raw, int from, int to, int maxLength, String field) {
+        if (to == from || to - from > maxLength) {
+            throw invalid(field + " must be 1 to " + maxLength + " characters");
+        }
+        return raw.substring(from, to);
+    }
+
+    private static int digits(String raw, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + digit(raw, i);
+        }
+        return value;
+    }
+
+    private static int digit(String raw, int index) {
+        char c = raw.charAt(index);
+        if (c < '0' || c > '9') {
+            throw invalid("expected a digit at position " + index);
+        }
+        return c - '0';
+    }
+
+    private static boolean isTrailingNoise(char c) {
+        return c == '\r' || c == '\n' || c == ' ' || c == '\t';
+    }
+
+    private static String pad(int ai, int length) {
+        String value = Integer.toString(ai);
+        return "0".repeat(Math.max(0, length - value.length())) + value;
+    }
+
+    private static BusinessException invalid(String reason) {
+        return new BusinessException("Invalid GS1 barcode: " + reason);
+    }
+}
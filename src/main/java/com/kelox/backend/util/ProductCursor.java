@@ -0,0 +1,87 @@
+package com.kelox.backend.util;
+
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for product listings.
+ * Encodes the sort key value and id of the last row of a page, plus the sort it was produced for,
+ * so a cursor can't be replayed against a different ordering.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+    
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+    
+    private final ProductSort sort;
+    private final Sort.Direction direction;
+    private final String keyValue;
+    private final Long lastId;
+    
+    /**
+     * Build the cursor that points just after the row with the given id and sort keys
+     */
+    public static ProductCursor after(Long id, LocalDateTime expiryDate, Float price,
+                                      ProductSort sort, Sort.Direction direction) {
+        String keyValue = switch (sort) {
+            case EXPIRY_DATE -> expiryDate.toString();
+            case PRICE -> price.toString();
+            case ID -> "";
+        };
+        return new ProductCursor(sort, direction, keyValue, id);
+    }
+    
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sort.name(), direction.name(), keyValue, lastId.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor token and verify it was issued for the requested ordering
+     */
+    public static ProductCursor decode(String token, ProductSort sort, Sort.Direction direction) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+        
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new BusinessException("Invalid cursor");
+        }
+        
+        if (!sort.name().equals(parts[1]) || !direction.name().equals(parts[2])) {
+            throw new BusinessException("Cursor does not match the requested sort order");
+        }
+        
+        ProductCursor cursor;
+        try {
+            cursor = new ProductCursor(sort, direction, parts[3], Long.parseLong(parts[4]));
+            // Fail fast on a tampered key value instead of at query time
+            cursor.getExpiryDate();
+            cursor.getPrice();
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+        return cursor;
+    }
+    
+    public LocalDateTime getExpiryDate() {
+        return sort == ProductSort.EXPIRY_DATE ? LocalDateTime.parse(keyValue) : null;
+    }
+    
+    public Float getPrice() {
+        return sort == ProductSort.PRICE ? Float.valueOf(keyValue) : null;
+    }
+}
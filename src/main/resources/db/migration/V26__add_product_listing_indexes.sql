@@ -0,0 +1,10 @@
+-- Composite indexes backing keyset pagination of marketplace listings
+-- Each sort key is paired with id as tie-breaker, matching ORDER BY <key>, id
+CREATE INDEX idx_products_expiry_date_id ON products(expiry_date, id);
+CREATE INDEX idx_products_price_id ON products(price, id);
+CREATE INDEX idx_products_seller_expiry_date_id ON products(seller_hospital_id, expiry_date, id);
+CREATE INDEX idx_products_seller_price_id ON products(seller_hospital_id, price, id);
+
+-- Superseded by the composite indexes above (same leading column)
+DROP INDEX IF EXISTS idx_products_expiry_date;
+DROP INDEX IF EXISTS idx_products_seller_hospital_id;
@@ -0,0 +1,15 @@
+-- Full-text search over product name, code, manufacturer and description
+-- 'simple' configuration: no stemming or stop words, so product codes and brand names match as typed
+ALTER TABLE products
+ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(code, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(manufacturer, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+) STORED;
+
+-- Create GIN index so search queries don't scan the table
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
+
+-- Add comment
+COMMENT ON COLUMN products.search_vector IS 'Weighted full-text document (name/code A, manufacturer B, description C), maintained by PostgreSQL';
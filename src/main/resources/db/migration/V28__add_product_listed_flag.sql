@@ -0,0 +1,18 @@
+-- Expired lots are taken off the marketplace by flipping listed, so listings filter on a boolean
+-- instead of comparing expiry_date against the clock for every row
+ALTER TABLE products ADD COLUMN listed BOOLEAN NOT NULL DEFAULT TRUE;
+
+UPDATE products SET listed = FALSE WHERE expiry_date <= NOW();
+
+-- Marketplace keyset indexes only need listed rows
+CREATE INDEX idx_products_listed_expiry_date_id ON products(expiry_date, id) WHERE listed;
+CREATE INDEX idx_products_listed_price_id ON products(price, id) WHERE listed;
+CREATE INDEX idx_products_listed_seller_price_id ON products(seller_hospital_id, price, id) WHERE listed;
+
+-- Superseded by the partial indexes above; (seller_hospital_id, expiry_date, id) stays for the admin listing
+DROP INDEX IF EXISTS idx_products_expiry_date_id;
+DROP INDEX IF EXISTS idx_products_price_id;
+DROP INDEX IF EXISTS idx_products_seller_price_id;
+
+-- Add comment
+COMMENT ON COLUMN products.listed IS 'False once the lot has expired; unlisted products are hidden from the marketplace and cannot be added to carts';
@@ -0,0 +1,7 @@
+-- Fuzzy "did you mean" lookup for mistyped product codes and lot numbers
+-- pg_trgm ships with PostgreSQL contrib; the similarity operator (%) can use GIN trigram indexes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Partial like the listing indexes: only listed lots are ever suggested
+CREATE INDEX idx_products_code_trgm ON products USING GIN (code gin_trgm_ops) WHERE listed;
+CREATE INDEX idx_products_lot_number_trgm ON products USING GIN (lot_number gin_trgm_ops) WHERE listed;
@@ -0,0 +1,47 @@
+-- Change tracking for delta sync: every product write stamps the writing transaction id into updated_seq.
+-- Transaction ids are handed out in start order, not commit order, so readers only return changes below
+-- pg_snapshot_xmin(pg_current_snapshot()) - every transaction under that bound has finished, which makes
+-- "everything after N" gap-free even when writers commit out of order.
+-- Rows written before tracking existed share sequence 1.
+ALTER TABLE products ADD COLUMN updated_seq BIGINT NOT NULL DEFAULT 1;
+
+CREATE OR REPLACE FUNCTION products_set_updated_seq() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_seq := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_updated_seq
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_set_updated_seq();
+
+-- Keyset order for GET /api/marketplace/products/changes?since=
+CREATE INDEX idx_products_updated_seq_id ON products(updated_seq, id);
+
+-- Deleted products leave a tombstone so offline copies can drop them; unlisted rows are reported from products itself
+CREATE TABLE product_tombstones (
+    product_id BIGINT PRIMARY KEY,
+    seller_hospital_id BIGINT NOT NULL,
+    updated_seq BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_product_tombstones_updated_seq_id ON product_tombstones(updated_seq, product_id);
+
+CREATE OR REPLACE FUNCTION products_record_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO product_tombstones (product_id, seller_hospital_id, updated_seq)
+    VALUES (OLD.id, OLD.seller_hospital_id, pg_current_xact_id()::text::bigint)
+    ON CONFLICT (product_id) DO UPDATE SET updated_seq = EXCLUDED.updated_seq, deleted_at = CURRENT_TIMESTAMP;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_tombstone
+    AFTER DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_record_tombstone();
+
+-- Add comments
+COMMENT ON COLUMN products.updated_seq IS 'Id of the transaction that last wrote the row; set by trigger, ordered change sequence for delta sync';
+COMMENT ON TABLE product_tombstones IS 'Products deleted from the catalog, kept so delta sync clients can remove them';
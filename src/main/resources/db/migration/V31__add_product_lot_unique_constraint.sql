@@ -0,0 +1,34 @@
+-- One row per lot and seller, so stock uploads can upsert with INSERT ... ON CONFLICT
+-- Merge existing duplicates into the oldest row first: quantities are summed and references repointed
+CREATE TEMP TABLE product_duplicates ON COMMIT DROP AS
+SELECT p.id AS duplicate_id, k.keeper_id
+FROM products p
+JOIN (
+    SELECT seller_hospital_id, code, lot_number, MIN(id) AS keeper_id
+    FROM products
+    GROUP BY seller_hospital_id, code, lot_number
+    HAVING COUNT(*) > 1
+) k ON k.seller_hospital_id = p.seller_hospital_id AND k.code = p.code AND k.lot_number = p.lot_number
+WHERE p.id <> k.keeper_id;
+
+UPDATE products p
+SET quantity = p.quantity + d.quantity
+FROM (
+    SELECT pd.keeper_id, SUM(dp.quantity) AS quantity
+    FROM product_duplicates pd
+    JOIN products dp ON dp.id = pd.duplicate_id
+    GROUP BY pd.keeper_id
+) d
+WHERE p.id = d.keeper_id;
+
+UPDATE shop_items SET product_id = d.keeper_id FROM product_duplicates d WHERE shop_items.product_id = d.duplicate_id;
+UPDATE order_items SET product_id = d.keeper_id FROM product_duplicates d WHERE order_items.product_id = d.duplicate_id;
+UPDATE offer_products SET product_id = d.keeper_id FROM product_duplicates d WHERE offer_products.product_id = d.duplicate_id;
+
+DELETE FROM products WHERE id IN (SELECT duplicate_id FROM product_duplicates);
+
+-- Conflict target of the stock upload upsert
+ALTER TABLE products ADD CONSTRAINT uk_products_seller_code_lot UNIQUE (seller_hospital_id, code, lot_number);
+
+-- Add comment
+COMMENT ON CONSTRAINT uk_products_seller_code_lot ON products IS 'A lot is listed once per seller; re-uploading it adds to the quantity';
@@ -0,0 +1,41 @@
+-- CSV stock uploads processed in the background
+CREATE TABLE product_import_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    hospital_id BIGINT NOT NULL,
+    created_by UUID NOT NULL,
+    file_name VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    processed_rows INTEGER NOT NULL DEFAULT 0,
+    imported_rows INTEGER NOT NULL DEFAULT 0,
+    failed_rows INTEGER NOT NULL DEFAULT 0,
+    error_message TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    CONSTRAINT fk_product_import_jobs_hospital FOREIGN KEY (hospital_id) REFERENCES hospital_profiles(id) ON DELETE CASCADE,
+    CONSTRAINT fk_product_import_jobs_created_by FOREIGN KEY (created_by) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_product_import_job_status CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE INDEX idx_product_import_jobs_hospital_created_at ON product_import_jobs(hospital_id, created_at);
+-- Only unfinished jobs are checked for staleness
+CREATE INDEX idx_product_import_jobs_unfinished ON product_import_jobs(updated_at) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Rejected rows of an import, served as the downloadable error report
+CREATE TABLE product_import_errors (
+    id BIGSERIAL PRIMARY KEY,
+    job_id UUID NOT NULL,
+    line_number INTEGER NOT NULL,
+    message TEXT NOT NULL,
+    raw_row TEXT,
+    CONSTRAINT fk_product_import_errors_job FOREIGN KEY (job_id) REFERENCES product_import_jobs(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_product_import_errors_job_line ON product_import_errors(job_id, line_number);
+
+-- Add comments
+COMMENT ON TABLE product_import_jobs IS 'CSV stock uploads; rows are committed in chunks by a background executor';
+COMMENT ON COLUMN product_import_jobs.processed_rows IS 'Data rows read so far, valid or not';
+COMMENT ON COLUMN product_import_jobs.updated_at IS 'Last progress update; unfinished jobs that stop updating are failed as stale';
+COMMENT ON TABLE product_import_errors IS 'Rows rejected by an import with the reason, capped per job';
@@ -0,0 +1,6 @@
+-- Inventory sync for hospital ERPs: the content hash of the ERP line last applied to each lot
+-- Lots whose hash the ERP re-sends unchanged are skipped, so a full re-send only writes what changed
+ALTER TABLE products ADD COLUMN sync_hash VARCHAR(128);
+
+-- Add comment
+COMMENT ON COLUMN products.sync_hash IS 'Client-computed hash of the ERP inventory line last synced into this lot; null when not managed by sync';
@@ -0,0 +1,3 @@
+-- Shop item IDs are allocated by Hibernate in blocks of 50 (pooled optimizer) so that new items can be
+-- inserted in JDBC batches; the sequence has to step by the same amount. Existing IDs are unaffected.
+ALTER SEQUENCE shop_items_id_seq INCREMENT BY 50;
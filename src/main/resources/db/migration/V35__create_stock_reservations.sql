@@ -0,0 +1,31 @@
+-- Time-limited holds on product stock from cart items and checked-out orders
+-- products.reserved_quantity is the sum of a product's holds, kept in step by the application, so
+-- available-to-sell is quantity - reserved_quantity without aggregating reservations
+ALTER TABLE products ADD COLUMN reserved_quantity INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD CONSTRAINT chk_product_reserved_quantity CHECK (reserved_quantity >= 0);
+
+CREATE TABLE stock_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    shop_item_id BIGINT,
+    order_id UUID,
+    quantity INTEGER NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_stock_reservations_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    -- A hold whose cart item or order disappears without releasing it stays counted until it expires
+    CONSTRAINT fk_stock_reservations_shop_item FOREIGN KEY (shop_item_id) REFERENCES shop_items(id) ON DELETE SET NULL,
+    CONSTRAINT fk_stock_reservations_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE SET NULL,
+    CONSTRAINT uk_stock_reservations_shop_item UNIQUE (shop_item_id),
+    CONSTRAINT chk_stock_reservation_quantity CHECK (quantity > 0)
+);
+
+-- Create indexes for the expiry sweep and order lookups
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations(expires_at);
+CREATE INDEX idx_stock_reservations_order_id ON stock_reservations(order_id) WHERE order_id IS NOT NULL;
+
+-- Add comments
+COMMENT ON TABLE stock_reservations IS 'Holds on product stock from cart items (short TTL) and checked-out orders (long TTL)';
+COMMENT ON COLUMN stock_reservations.shop_item_id IS 'Cart item holding the stock; null once checked out';
+COMMENT ON COLUMN stock_reservations.order_id IS 'Order the hold was converted to at checkout';
+COMMENT ON COLUMN products.reserved_quantity IS 'Sum of stock_reservations.quantity for the product';
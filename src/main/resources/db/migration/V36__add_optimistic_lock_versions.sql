@@ -0,0 +1,10 @@
+-- Optimistic locking for rows updated with read-modify-write: concurrent writers of the same row
+-- fail with a version conflict and are retried instead of silently overwriting each other
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE hospital_profiles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE offers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Add comments
+COMMENT ON COLUMN products.version IS 'Optimistic lock version; bulk SQL updates of product fields increment it as well';
+COMMENT ON COLUMN hospital_profiles.version IS 'Optimistic lock version (balance updates)';
+COMMENT ON COLUMN offers.version IS 'Optimistic lock version (status changes)';
@@ -0,0 +1,21 @@
+-- Responses recorded per Idempotency-Key, so a retried POST replays the first response instead of running again
+-- A row without status_code is in flight; locked_until lets another instance take over a key whose
+-- request died with its instance.
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(400) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Create index for the expiry sweep
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
+
+-- Add comments
+COMMENT ON TABLE idempotency_keys IS 'First response per caller and Idempotency-Key header, replayed for retries until expires_at';
+COMMENT ON COLUMN idempotency_keys.idempotency_key IS 'Caller (user, admin or anonymous) and the client-supplied key';
+COMMENT ON COLUMN idempotency_keys.request_hash IS 'SHA-256 of method, URI and body; a retry must match it';
@@ -0,0 +1,29 @@
+-- Append-only history of order lifecycle changes: creation, status transitions and payment
+-- Order timelines and ops feeds read this table instead of scanning orders
+CREATE TABLE order_events (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    from_status VARCHAR(50),
+    to_status VARCHAR(50) NOT NULL,
+    details VARCHAR(500),
+    actor VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_order_events_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
+    CONSTRAINT chk_order_event_type CHECK (event_type IN ('CREATED', 'STATUS_CHANGED', 'PAID', 'UNPAID'))
+);
+
+-- Create indexes for per-order timelines and the recent events feed
+CREATE INDEX idx_order_events_order_id ON order_events(order_id, id);
+CREATE INDEX idx_order_events_created_at ON order_events(created_at);
+
+-- Existing orders start their timeline at their current status; earlier transitions were not recorded
+INSERT INTO order_events (order_id, event_type, from_status, to_status, details, created_at)
+SELECT id, 'CREATED', NULL, status, 'Recorded when the event log was introduced', created_at
+FROM orders;
+
+-- Add comments
+COMMENT ON TABLE order_events IS 'Order lifecycle events, appended in the same transaction as the change';
+COMMENT ON COLUMN order_events.from_status IS 'Status before the event; null for CREATED';
+COMMENT ON COLUMN order_events.to_status IS 'Status after the event; equal to from_status for PAID / UNPAID';
+COMMENT ON COLUMN order_events.actor IS 'Who made the change: admin or user:<id>';
@@ -0,0 +1,17 @@
+-- Only writes that change what the catalog shows move updated_seq; stock holds (reserved_quantity), version bumps
+-- and sync hashes no longer make a product look changed to delta sync clients
+DROP TRIGGER trg_products_updated_seq ON products;
+
+CREATE TRIGGER trg_products_inserted_seq
+    BEFORE INSERT ON products
+    FOR EACH ROW EXECUTE FUNCTION products_set_updated_seq();
+
+CREATE TRIGGER trg_products_updated_seq
+    BEFORE UPDATE ON products
+    FOR EACH ROW
+    WHEN ((OLD.name, OLD.manufacturer, OLD.code, OLD.lot_number, OLD.expiry_date, OLD.description, OLD.price,
+           OLD.quantity, OLD.unit, OLD.seller_hospital_id, OLD.listed)
+          IS DISTINCT FROM
+          (NEW.name, NEW.manufacturer, NEW.code, NEW.lot_number, NEW.expiry_date, NEW.description, NEW.price,
+           NEW.quantity, NEW.unit, NEW.seller_hospital_id, NEW.listed))
+    EXECUTE FUNCTION products_set_updated_seq();
@@ -0,0 +1,13 @@
+-- Listings expose available quantity (quantity - reserved_quantity), so stock holds must move updated_seq too
+-- or delta sync clients keep a stale availability
+DROP TRIGGER trg_products_updated_seq ON products;
+
+CREATE TRIGGER trg_products_updated_seq
+    BEFORE UPDATE ON products
+    FOR EACH ROW
+    WHEN ((OLD.name, OLD.manufacturer, OLD.code, OLD.lot_number, OLD.expiry_date, OLD.description, OLD.price,
+           OLD.quantity, OLD.reserved_quantity, OLD.unit, OLD.seller_hospital_id, OLD.listed)
+          IS DISTINCT FROM
+          (NEW.name, NEW.manufacturer, NEW.code, NEW.lot_number, NEW.expiry_date, NEW.description, NEW.price,
+           NEW.quantity, NEW.reserved_quantity, NEW.unit, NEW.seller_hospital_id, NEW.listed))
+    EXECUTE FUNCTION products_set_updated_seq();
@@ -0,0 +1,111 @@
+package com.kelox.backend.service;
+
+import com.kelox.backend.dto.ProductPageResponse;
+import com.kelox.backend.dto.ProductResponse;
+import com.kelox.backend.entity.HospitalProfile;
+import com.kelox.backend.entity.Product;
+import com.kelox.backend.enums.ProductSort;
+import com.kelox.backend.enums.Unit;
+import com.kelox.backend.repository.HospitalProfileRepository;
+import com.kelox.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Product listings must select products and seller names in one statement, however many sellers are involved
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ProductQueryCountTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private HospitalProfileRepository hospitalProfileRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    private HospitalProfile firstSeller;
+    
+    @BeforeEach
+    void setUp() {
+        firstSeller = createHospital("Query Count Hospital A");
+        HospitalProfile secondSeller = createHospital("Query Count Hospital B");
+        HospitalProfile thirdSeller = createHospital("Query Count Hospital C");
+        for (HospitalProfile seller : List.of(firstSeller, secondSeller, thirdSeller)) {
+            for (int i = 0; i < 3; i++) {
+                createProduct(seller, i);
+            }
+        }
+        
+        // Nothing may be served from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void marketplacePageUsesOneStatement() {
+        ProductPageResponse page = productService.getProductsPage(
+            null, null, ProductSort.EXPIRY_DATE, Sort.Direction.ASC, null, 200);
+        
+        assertTrue(page.getItems().size() >= 9);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void hospitalProductsUseExistenceCheckPlusOneStatement() {
+        List<ProductResponse> products = productService.getProductsByHospital(firstSeller.getId());
+        
+        assertEquals(3, products.size());
+        assertEquals("Query Count Hospital A", products.get(0).getSellerHospitalName());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+    
+    private HospitalProfile createHospital(String name) {
+        HospitalProfile hospital = new HospitalProfile();
+        hospital.setName(name);
+        hospital.setAddress("1 Test Street");
+        hospital.setCompanyName(name + " Ltd");
+        return hospitalProfileRepository.save(hospital);
+    }
+    
+    private void createProduct(HospitalProfile seller, int index) {
+        Product product = new Product();
+        product.setName("Test product " + index);
+        product.setManufacturer("Test manufacturer");
+        product.setCode("QC-" + seller.getId() + "-" + index);
+        product.setLotNumber("LOT-" + index);
+        product.setExpiryDate(LocalDateTime.now().plusDays(30 + index));
+        product.setPrice(10f + index);
+        product.setQuantity(5);
+        product.setUnit(Unit.BOX);
+        product.setSeller(seller);
+        productRepository.save(product);
+    }
+}